@@ -0,0 +1,30 @@
+/*
+   FILE: BenchmarkRunner.java
+
+   PURPOSE: Entry point of the benchmarks jar, runs JMH with the GC profiler.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Accepts the regular JMH command line, e.g.
+ * {@code java -jar target/benchmarks.jar TransformBenchmark -p workload=UOM -p relationships=0,500}.
+ * The GC profiler is always on, so every result includes {@code gc.alloc.rate.norm}, the bytes allocated per operation.
+ */
+public final class BenchmarkRunner {
+   private BenchmarkRunner() {
+   }
+
+   public static void main(String[] args) throws Exception {
+      CommandLineOptions commandLine = new CommandLineOptions(args);
+      new Runner(new OptionsBuilder().parent(commandLine).addProfiler(GCProfiler.class).build()).run();
+   }
+}
@@ -0,0 +1,82 @@
+/*
+   FILE: FieldMapGeneratorBenchmark.java
+
+   PURPOSE: Cost of FieldMapGenerator.generate for mapping configs of growing size.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.connectors.gdsntransformation.FieldMapGenerator;
+import com.riversand.connectors.gdsntransformation.MappingConfigCache;
+import com.riversand.rsconnect.common.config.FieldMapping;
+import com.riversand.rsconnect.common.config.RSConnectContext;
+
+/**
+ * The mappings config is served from memory, so the benchmark covers parsing the config into field mappings and
+ * merging the relationship mappings, not the config service. With a TTL of 0 the mapping config cache is bypassed and
+ * every call parses the config.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldMapGeneratorBenchmark {
+   @Param({"PLAIN", "UOM"})
+   public Workload workload;
+
+   @Param({"10", "100", "1000"})
+   public int mappingCount;
+
+   @Param({"0", "300"})
+   public int cacheTtlSeconds;
+
+   private FieldMapGenerator generator;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      MappingConfigCache.getInstance().invalidateAll();
+      JsonObject profile = SyntheticData.profileJson(workload, 0, 0);
+      profile.getAsJsonObject("connectProfile").getAsJsonObject("transform").getAsJsonObject("settings")
+            .getAsJsonObject("additionalSettings").addProperty("mappingConfigCacheTtlSeconds", cacheTtlSeconds);
+      RSConnectContext connectContext = SyntheticData.toConnectContext(profile);
+      JsonObject jsonData = new JsonObject();
+      jsonData.add("mappings", SyntheticData.mappings(workload, mappingCount, 0));
+      jsonData.add("relationshipMappings", SyntheticData.relationshipMappings());
+      JsonObject config = new JsonObject();
+      config.add("jsonData", jsonData);
+      generator = new FieldMapGenerator(null, null, null, connectContext, null) {
+         @Override
+         protected JsonObject getConfigDataObject(String tenantId, String configId) {
+            return config;
+         }
+      };
+   }
+
+   @Benchmark
+   public List<FieldMapping> generate() throws Exception {
+      return generator.generate(null);
+   }
+}
@@ -0,0 +1,109 @@
+/*
+   FILE: NestedBenchmark.java
+
+   PURPOSE: Cost of nested attribute groups by number of rows.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import com.riversand.connectors.gdsntransformation.GDSNTransformer;
+import com.riversand.rsconnect.interfaces.models.IRecord;
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+/**
+ * One record with a nested group per operation. The time per record is expected to grow linearly with the rows, the
+ * rows of the group are read once and each child mapping reads its attribute in the row.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NestedBenchmark {
+   private static final String GROUP = "nutrientDetails";
+   private static final String ROW_PATH = "nutrientHeader.nutrientDetail[%d]";
+
+   @Param({"10", "100", "1000"})
+   public int rows;
+
+   /**
+    * Child mappings of the group, one attribute each in every row.
+    */
+   @Param({"2", "8"})
+   public int children;
+
+   private GDSNTransformer transformer;
+   private JsonObject entity;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      JsonObject profile = SyntheticData.loadResource("transformProfile.json");
+      JsonArray fieldMap = profile.getAsJsonObject("connectProfile").getAsJsonObject("transform").getAsJsonArray("fieldMap");
+      fieldMap.add(mapping(GROUP, ROW_PATH, "nested"));
+      for (int child = 0; child < children; child++) {
+         fieldMap.add(mapping(SyntheticData.attributeName(child), ROW_PATH + "." + SyntheticData.attributeName(child), "string"));
+      }
+      transformer = new GDSNTransformer(SyntheticData.toConnectContext(profile));
+
+      JsonArray group = new JsonArray();
+      for (int row = 0; row < rows; row++) {
+         JsonObject rowObject = new JsonObject();
+         for (int child = 0; child < children; child++) {
+            JsonObject value = new JsonObject();
+            value.addProperty("value", "row" + row + "_" + child);
+            JsonArray values = new JsonArray();
+            values.add(value);
+            JsonObject attribute = new JsonObject();
+            attribute.add("values", values);
+            rowObject.add(SyntheticData.attributeName(child), attribute);
+         }
+         group.add(rowObject);
+      }
+      JsonObject nested = new JsonObject();
+      nested.add("group", group);
+      entity = SyntheticData.loadResource("sourceEntity.json");
+      entity.getAsJsonObject("data").getAsJsonObject("attributes").add(GROUP, nested);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws Exception {
+      transformer.close();
+   }
+
+   @Benchmark
+   public IRecord transform() {
+      return transformer.transform(new JsonRecord(entity, null), null);
+   }
+
+   private static JsonObject mapping(String attribute, String destination, String type) {
+      JsonObject mapping = new JsonObject();
+      mapping.addProperty("source", "@attr(" + attribute + ")");
+      mapping.addProperty("destination", "@path(" + destination + ")");
+      mapping.addProperty("entityType", SyntheticData.ENTITY_TYPE);
+      mapping.addProperty("type", type);
+      return mapping;
+   }
+}
@@ -0,0 +1,180 @@
+/*
+   FILE: SyntheticData.java
+
+   PURPOSE: Build benchmark profiles and entities of a given size from the gdsn-transformation test fixtures.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+import com.riversand.rsconnect.common.helpers.RSExtensionConnectContextSerializer;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * The fixtures of the transformer tests ({@code transformProfile.json} and {@code sourceEntity.json}) are the base of
+ * every synthetic profile and entity, so the benchmarks always include the mapping types of the real profile.
+ * Synthetic attributes are named {@code synthetic<n>} and mapped to {@code synthetic.synthetic<n>}.
+ */
+public final class SyntheticData {
+   static final String ENTITY_TYPE = "tradeitem";
+   static final String RELATIONSHIP_TYPE = "childTradeItem";
+   private static final String RESOURCE_PATH = "/com/riversand/connectors/gdsntransformation/";
+
+   private SyntheticData() {
+   }
+
+   public static JsonObject loadResource(String name) {
+      InputStream stream = SyntheticData.class.getResourceAsStream(RESOURCE_PATH + name);
+      if (stream == null) {
+         throw new ConnectRuntimeException(RSC_7820, "Missing benchmark resource: " + name);
+      }
+      return new JsonParser().parse(new InputStreamReader(stream, StandardCharsets.UTF_8)).getAsJsonObject();
+   }
+
+   static String attributeName(int index) {
+      return "synthetic" + index;
+   }
+
+   static String contextName(int index) {
+      return "context" + index;
+   }
+
+   /**
+    * Field mappings of the synthetic attributes, in the JSON form of the profile.
+    *
+    * @param contexts number of contexts the mappings are defined in, 0 for self only
+    */
+   public static JsonArray mappings(Workload workload, int mappingCount, int contexts) {
+      JsonArray mappings = new JsonArray();
+      for (int i = 0; i < mappingCount; i++) {
+         JsonObject mapping = workload.mapping(attributeName(i));
+         // every other mapping is context specific, the rest falls back to self
+         if (contexts > 0 && i % 2 == 0) {
+            JsonArray contextKeys = new JsonArray();
+            for (int context = 0; context < contexts; context++) {
+               contextKeys.add(contextName(context));
+            }
+            mapping.add("contextKeys", contextKeys);
+         }
+         mappings.add(mapping);
+      }
+      return mappings;
+   }
+
+   /**
+    * Relationship field mappings for the elements created by {@link #entity}.
+    */
+   public static JsonArray relationshipMappings() {
+      JsonArray mappings = new JsonArray();
+      JsonObject quantity = new JsonObject();
+      quantity.addProperty("source", "@attr(totalQuantityOfNextLowerLevelTradeItem)");
+      quantity.addProperty("destination", "@path(quantityOfNextLowerLevelTradeItem)");
+      quantity.addProperty("entityType", ENTITY_TYPE);
+      quantity.addProperty("type", "integer");
+      mappings.add(quantity);
+      return mappings;
+   }
+
+   /**
+    * Profile of the transformer tests with the synthetic mappings and the relationship mappings added.
+    */
+   public static JsonObject profileJson(Workload workload, int mappingCount, int contexts) {
+      JsonObject profile = loadResource("transformProfile.json");
+      JsonObject transform = profile.getAsJsonObject("connectProfile").getAsJsonObject("transform");
+      transform.getAsJsonArray("fieldMap").addAll(mappings(workload, mappingCount, contexts));
+      JsonObject relationships = new JsonObject();
+      relationships.add("fieldMap", relationshipMappings());
+      transform.add("relationships", relationships);
+      return profile;
+   }
+
+   public static RSConnectContext profile(Workload workload, int mappingCount, int contexts) {
+      return toConnectContext(profileJson(workload, mappingCount, contexts));
+   }
+
+   public static RSConnectContext toConnectContext(JsonObject profile) {
+      return RSExtensionConnectContextSerializer.fromJson(null, new ByteArrayInputStream(profile.toString().getBytes(StandardCharsets.UTF_8)));
+   }
+
+   /**
+    * Entity of the transformer tests with synthetic attributes added.
+    *
+    * @param mappingCount       number of mapped synthetic attributes
+    * @param valuesPerAttribute values of each collection, UOM, localizable and reference attribute
+    * @param contexts           number of contexts, each repeating the mapped attributes
+    * @param relationships      number of relationship elements
+    * @param unmappedAttributes number of attributes no mapping reads
+    */
+   public static JsonObject entity(Workload workload, int mappingCount, int valuesPerAttribute, int contexts, int relationships, int unmappedAttributes) {
+      JsonObject entity = loadResource("sourceEntity.json");
+      JsonObject data = entity.getAsJsonObject("data");
+      JsonObject attributes = data.getAsJsonObject("attributes");
+      for (int i = 0; i < mappingCount; i++) {
+         attributes.add(attributeName(i), workload.attribute(i, valuesPerAttribute));
+      }
+      for (int i = 0; i < unmappedAttributes; i++) {
+         attributes.add("unmapped" + i, Workload.PLAIN.attribute(i, 1));
+      }
+
+      if (contexts > 0) {
+         JsonArray contextArray = new JsonArray();
+         for (int context = 0; context < contexts; context++) {
+            JsonObject contextObject = new JsonObject();
+            JsonObject contextKey = new JsonObject();
+            contextKey.addProperty("channel", contextName(context));
+            contextObject.add("context", contextKey);
+            JsonObject contextAttributes = new JsonObject();
+            for (int i = 0; i < mappingCount; i += 2) {
+               contextAttributes.add(attributeName(i), workload.attribute(i, valuesPerAttribute));
+            }
+            contextObject.add("attributes", contextAttributes);
+            contextArray.add(contextObject);
+         }
+         data.add("contexts", contextArray);
+      }
+
+      if (relationships > 0) {
+         JsonArray elements = new JsonArray();
+         for (int i = 0; i < relationships; i++) {
+            elements.add(relationship(i));
+         }
+         JsonObject relationshipObject = new JsonObject();
+         relationshipObject.add(RELATIONSHIP_TYPE, elements);
+         data.add("relationships", relationshipObject);
+      }
+      return entity;
+   }
+
+   private static JsonObject relationship(int index) {
+      JsonObject attributes = new JsonObject();
+      attributes.add("totalQuantityOfNextLowerLevelTradeItem", Workload.PLAIN.attribute(index, 1));
+      JsonObject relToAttributes = new JsonObject();
+      relToAttributes.add("gtin", Workload.PLAIN.attribute(index, 1));
+      relToAttributes.add("brand", Workload.PLAIN.attribute(index, 1));
+      JsonObject relToData = new JsonObject();
+      relToData.add("attributes", relToAttributes);
+      JsonObject relTo = new JsonObject();
+      relTo.addProperty("id", "child" + index);
+      relTo.addProperty("type", ENTITY_TYPE);
+      relTo.add("data", relToData);
+      JsonObject relationship = new JsonObject();
+      relationship.addProperty("id", "relationship" + index);
+      relationship.add("attributes", attributes);
+      relationship.add("relTo", relTo);
+      return relationship;
+   }
+}
@@ -0,0 +1,116 @@
+/*
+   FILE: TransformBenchmark.java
+
+   PURPOSE: Throughput and allocation of GDSNTransformer over synthetic workloads.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.connectors.gdsntransformation.GDSNTransformer;
+import com.riversand.rsconnect.interfaces.models.IRecord;
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+/**
+ * One record per operation, through the tree, projected and batch entry points. Run with the GC profiler
+ * ({@link BenchmarkRunner} adds it) for the bytes allocated per record.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransformBenchmark {
+   private static final int BATCH_SIZE = 256;
+
+   @Param({"PLAIN", "COLLECTION", "UOM", "LOCALIZABLE", "REFERENCE"})
+   public Workload workload;
+
+   /**
+    * Synthetic mappings on top of the test profile.
+    */
+   @Param({"10", "100"})
+   public int mappingCount;
+
+   @Param({"1", "10"})
+   public int valuesPerAttribute;
+
+   @Param({"0", "4"})
+   public int contexts;
+
+   /**
+    * Relationship fan-out of the record.
+    */
+   @Param({"0", "50"})
+   public int relationships;
+
+   /**
+    * Record size beyond what the mappings read.
+    */
+   @Param({"0"})
+   public int unmappedAttributes;
+
+   private GDSNTransformer transformer;
+   private JsonObject entity;
+   private byte[] entityBytes;
+   private List<JsonRecord> batch;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      transformer = new GDSNTransformer(SyntheticData.profile(workload, mappingCount, contexts));
+      entity = SyntheticData.entity(workload, mappingCount, valuesPerAttribute, contexts, relationships, unmappedAttributes);
+      entityBytes = entity.toString().getBytes(StandardCharsets.UTF_8);
+      batch = new ArrayList<>(BATCH_SIZE);
+      for (int i = 0; i < BATCH_SIZE; i++) {
+         batch.add(new JsonRecord(entity.deepCopy(), null));
+      }
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws Exception {
+      transformer.close();
+   }
+
+   @Benchmark
+   public IRecord transform() {
+      return transformer.transform(new JsonRecord(entity, null), null);
+   }
+
+   @Benchmark
+   public IRecord transformProjected() throws IOException {
+      return transformer.transformProjected(new ByteArrayInputStream(entityBytes), null);
+   }
+
+   @Benchmark
+   @OperationsPerInvocation(BATCH_SIZE)
+   public List<IRecord> transformBatch() {
+      return transformer.transformBatch(batch, null);
+   }
+}
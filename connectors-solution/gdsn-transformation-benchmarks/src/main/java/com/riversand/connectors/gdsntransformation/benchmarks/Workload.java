@@ -0,0 +1,87 @@
+/*
+   FILE: Workload.java
+
+   PURPOSE: Shape of the synthetic attributes and mappings added to the benchmark profile.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation.benchmarks;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+public enum Workload {
+   /**
+    * Single valued string attributes.
+    */
+   PLAIN,
+   /**
+    * Collection attributes, one output element per value.
+    */
+   COLLECTION,
+   /**
+    * Collections with a unit of measure per value.
+    */
+   UOM,
+   /**
+    * Localizable attributes, one value per locale.
+    */
+   LOCALIZABLE,
+   /**
+    * Collections of reference data with an identifier per value.
+    */
+   REFERENCE;
+
+   private static final String[] LOCALES = {"en-US", "fr-FR", "de-DE", "es-ES", "it-IT", "nl-NL", "pt-BR", "ja-JP"};
+   private static final String[] UOMS = {"kgm", "gm", "lbr", "onz"};
+
+   /**
+    * Field mapping of the attribute, in the JSON form of the profile.
+    */
+   JsonObject mapping(String attribute) {
+      JsonObject mapping = new JsonObject();
+      mapping.addProperty("source", "@attr(" + attribute + ")");
+      mapping.addProperty("entityType", SyntheticData.ENTITY_TYPE);
+      mapping.addProperty("type", this == REFERENCE ? "referenceTypeData" : "string");
+      mapping.addProperty("hasUOM", this == UOM);
+      mapping.addProperty("collectionType", this == COLLECTION || this == UOM || this == REFERENCE);
+      mapping.addProperty("isLocalizable", this == LOCALIZABLE);
+      String path = "synthetic." + attribute;
+      if (this == PLAIN) {
+         mapping.addProperty("destination", "@path(" + path + ")");
+      } else if (this == REFERENCE) {
+         mapping.addProperty("destination", "@path(" + path + "[%d].code#@#" + path + "[%d].__value__)");
+      } else {
+         mapping.addProperty("destination", "@path(" + path + "[%d])");
+      }
+      return mapping;
+   }
+
+   /**
+    * RSJSON attribute with the given number of values. Plain attributes always have one value.
+    */
+   JsonObject attribute(int attributeIndex, int valueCount) {
+      JsonArray values = new JsonArray();
+      int count = this == PLAIN ? 1 : valueCount;
+      for (int i = 0; i < count; i++) {
+         JsonObject value = new JsonObject();
+         value.addProperty("source", "internal");
+         value.addProperty("locale", this == LOCALIZABLE ? LOCALES[i % LOCALES.length] : LOCALES[0]);
+         value.addProperty("value", "value-" + attributeIndex + "-" + i);
+         if (this == UOM) {
+            value.addProperty("uom", UOMS[i % UOMS.length]);
+         } else if (this == REFERENCE) {
+            JsonObject properties = new JsonObject();
+            properties.addProperty("referenceData", "synthetic/" + attributeIndex + "_" + i);
+            properties.addProperty("referenceDataIdentifier", "REF-" + attributeIndex + "-" + i);
+            value.add("properties", properties);
+         }
+         values.add(value);
+      }
+      JsonObject attribute = new JsonObject();
+      attribute.add("values", values);
+      return attribute;
+   }
+}
@@ -0,0 +1,97 @@
+/*
+   FILE: BoundedQueue.java
+
+   PURPOSE: Bounded lock-free multi-producer multi-consumer queue used between the stages of the transform pipeline.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Array based ring with a sequence number per slot: a producer claims the tail position with a compare-and-set and
+ * publishes the element by advancing the sequence of the slot, a consumer does the same at the head. Neither side
+ * takes a lock and {@link #offer(Object)} and {@link #poll()} never block; a full queue refuses the element, which is
+ * how the pipeline applies back-pressure. Callers wait with {@link Waiters}.
+ * <p>
+ * The capacity is rounded up to a power of two.
+ */
+final class BoundedQueue<E> {
+   private final int mask;
+   private final AtomicReferenceArray<E> elements;
+   private final AtomicLongArray sequences;
+   private final AtomicLong head = new AtomicLong();
+   private final AtomicLong tail = new AtomicLong();
+
+   BoundedQueue(int capacity) {
+      int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+      this.mask = size - 1;
+      this.elements = new AtomicReferenceArray<>(size);
+      this.sequences = new AtomicLongArray(size);
+      for (int i = 0; i < size; i++) {
+         sequences.set(i, i);
+      }
+   }
+
+   /**
+    * @return false when the queue is full
+    */
+   boolean offer(E element) {
+      while (true) {
+         long position = tail.get();
+         int slot = (int) position & mask;
+         long difference = sequences.get(slot) - position;
+         if (difference == 0) {
+            if (tail.compareAndSet(position, position + 1)) {
+               elements.lazySet(slot, element);
+               sequences.set(slot, position + 1);
+               return true;
+            }
+         } else if (difference < 0) {
+            return false;
+         }
+      }
+   }
+
+   /**
+    * @return head element, or null when the queue is empty
+    */
+   E poll() {
+      while (true) {
+         long position = head.get();
+         int slot = (int) position & mask;
+         long difference = sequences.get(slot) - (position + 1);
+         if (difference == 0) {
+            if (head.compareAndSet(position, position + 1)) {
+               E element = elements.get(slot);
+               elements.lazySet(slot, null);
+               sequences.set(slot, position + mask + 1);
+               return element;
+            }
+         } else if (difference < 0) {
+            return null;
+         }
+      }
+   }
+
+   boolean isEmpty() {
+      return head.get() >= tail.get();
+   }
+
+   /**
+    * @return false when the queue is full, true when the next offer may succeed
+    */
+   boolean hasRoom() {
+      long position = tail.get();
+      return sequences.get((int) position & mask) - position >= 0;
+   }
+
+   int capacity() {
+      return mask + 1;
+   }
+}
@@ -0,0 +1,318 @@
+/*
+   FILE: CompiledMapping.java
+
+   PURPOSE: Immutable, pre-resolved view of a FieldMapping used by the transform plan.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Strings;
+
+import com.riversand.connectors.extension.helpers.TransformerHelper;
+import com.riversand.rsconnect.common.config.FieldMapping;
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+import com.riversand.rsconnect.common.transform.FieldMapMacro;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Everything the transformer needs to know about a mapping is resolved once, when the profile is loaded. No reference
+ * to the {@link FieldMapping} is kept, so the compiled mapping does not change when the configuration is edited later.
+ */
+final class CompiledMapping {
+   static final String REFERENCE_TYPE_DATA = "referenceTypeData";
+   static final String NESTED = "nested";
+   private static final String REFERENCE_SEPARATOR = "#@#";
+   private static final String RELATIONSHIP_SOURCE_PATH = "attributes.%s.values[0].%s";
+
+   private final int ordinal;
+   private final String entityType;
+   private final String source;
+   private final String type;
+   private final boolean localizable;
+   private final boolean multiValued;
+   private final boolean hasUOM;
+   private final boolean referenceTypeData;
+   private final boolean nested;
+   private final ValueConverter converter;
+   private final String destinationTemplate;
+   private final CompiledPath destination;
+   private final CompiledPath destinationValue;
+   private final CompiledPath destinationLanguageCode;
+   private final CompiledPath destinationMeasurementUnitCode;
+   private final CompiledPath[] referenceDestinations;
+   private final Set<String> contextKeys;
+   private final SourceAccessor selfSource;
+   private final ConcurrentMap<String, SourceAccessor> contextSources = new ConcurrentHashMap<>();
+   private final String sourceAttribute;
+   private final String relationshipSourcePath;
+   private final CompiledPath relationshipSource;
+   private final String relationshipAttribute;
+   private final String label;
+
+   CompiledMapping(FieldMapping fieldMapping, int ordinal) {
+      this.ordinal = ordinal;
+      this.entityType = fieldMapping.getEntityType();
+      this.source = fieldMapping.getSource();
+      this.type = fieldMapping.getType();
+      this.localizable = fieldMapping.isLocalizable();
+      this.multiValued = fieldMapping.isCollectionType() || fieldMapping.isLocalizable();
+      this.hasUOM = fieldMapping.hasUOM();
+      this.referenceTypeData = REFERENCE_TYPE_DATA.equalsIgnoreCase(type);
+      this.nested = NESTED.equalsIgnoreCase(type);
+      this.converter = ValueConverter.forType(type);
+
+      String destinationField = fieldMapping.getDestination();
+      this.destinationTemplate = Strings.isNullOrEmpty(destinationField) ? null : GDSNFieldMapMacro.getPath(destinationField);
+      this.destination = destinationTemplate == null ? null : CompiledPath.tryCompile(destinationTemplate);
+      this.destinationValue = destination == null ? null : destination.child("__value__");
+      this.destinationLanguageCode = destination == null ? null : destination.child("languageCode");
+      this.destinationMeasurementUnitCode = destination == null ? null : destination.child("measurementUnitCode");
+
+      CompiledPath[] references = null;
+      if (referenceTypeData && destinationTemplate != null) {
+         List<String> parts = PathStrings.split(destinationTemplate, REFERENCE_SEPARATOR);
+         if (parts.size() == 2) {
+            references = new CompiledPath[]{CompiledPath.tryCompile(parts.get(0)), CompiledPath.tryCompile(parts.get(1))};
+         }
+      }
+      this.referenceDestinations = references;
+
+      this.contextKeys = fieldMapping.getContextKeys() == null ? null : Collections.unmodifiableSet(new LinkedHashSet<>(fieldMapping.getContextKeys()));
+      this.sourceAttribute = FieldMapMacro.isAttribute(source) ? FieldMapMacro.getAttribute(source) : null;
+      this.selfSource = Strings.isNullOrEmpty(source) ? null : new SourceAccessor(TransformerHelper.getSourceFieldInContext(source, null, Constants.Mappings.VALUE, 0), sourceAttribute);
+
+      String relationshipAttributeName = null;
+      if (FieldMapMacro.isAttribute(source)) {
+         relationshipAttributeName = FieldMapMacro.getAttribute(source);
+      } else if (FieldMapMacro.isRelationshipAttribute(source) || FieldMapMacro.isRelToAttribute(source)) {
+         relationshipAttributeName = FieldMapMacro.getValuesFromRelationshipAttribute(null, source).attributeName;
+      }
+      String relationshipPath = relationshipAttributeName == null ? null : String.format(RELATIONSHIP_SOURCE_PATH, relationshipAttributeName, Constants.Mappings.VALUE);
+      if (Strings.isNullOrEmpty(relationshipPath)) {
+         relationshipPath = source;
+         relationshipAttributeName = null;
+      }
+      this.relationshipAttribute = relationshipAttributeName;
+      this.relationshipSourcePath = relationshipPath;
+      this.relationshipSource = CompiledPath.tryCompile(relationshipPath);
+      this.label = entityType + ":" + source + "->" + destinationField;
+   }
+
+   /**
+    * Copy of the mapping writing below a nested group row: the destinations are relative to the row path.
+    */
+   private CompiledMapping(CompiledMapping mapping, CompiledPath rowPath) {
+      this.ordinal = mapping.ordinal;
+      this.entityType = mapping.entityType;
+      this.source = mapping.source;
+      this.type = mapping.type;
+      this.localizable = mapping.localizable;
+      this.multiValued = mapping.multiValued;
+      this.hasUOM = mapping.hasUOM;
+      this.referenceTypeData = mapping.referenceTypeData;
+      this.nested = mapping.nested;
+      this.converter = mapping.converter;
+      this.destination = mapping.destination == null ? null : mapping.destination.relativeTo(rowPath);
+      this.destinationTemplate = destination == null ? mapping.destinationTemplate : destination.toString();
+      this.destinationValue = destination == null ? null : destination.child("__value__");
+      this.destinationLanguageCode = destination == null ? null : destination.child("languageCode");
+      this.destinationMeasurementUnitCode = destination == null ? null : destination.child("measurementUnitCode");
+      CompiledPath[] references = null;
+      if (mapping.referenceDestinations != null && mapping.referenceDestinations[0] != null && mapping.referenceDestinations[1] != null) {
+         references = new CompiledPath[]{mapping.referenceDestinations[0].relativeTo(rowPath), mapping.referenceDestinations[1].relativeTo(rowPath)};
+      }
+      this.referenceDestinations = references;
+      this.contextKeys = mapping.contextKeys;
+      this.sourceAttribute = mapping.sourceAttribute;
+      this.selfSource = mapping.selfSource;
+      this.relationshipAttribute = mapping.relationshipAttribute;
+      this.relationshipSourcePath = mapping.relationshipSourcePath;
+      this.relationshipSource = mapping.relationshipSource;
+      this.label = mapping.label;
+   }
+
+   /**
+    * @return copy of the mapping with destinations relative to the row path of a nested group
+    */
+   CompiledMapping relativeTo(CompiledPath rowPath) {
+      return new CompiledMapping(this, rowPath);
+   }
+
+   /**
+    * @return destination path after macro resolution, or null when the mapping has no destination
+    */
+   String getDestinationTemplate() {
+      return destinationTemplate;
+   }
+
+   int getOrdinal() {
+      return ordinal;
+   }
+
+   String getEntityType() {
+      return entityType;
+   }
+
+   String getSource() {
+      return source;
+   }
+
+   String getType() {
+      return type;
+   }
+
+   boolean isLocalizable() {
+      return localizable;
+   }
+
+   /**
+    * Collection and localizable fields both carry one value per entry of the source values array.
+    */
+   boolean isMultiValued() {
+      return multiValued;
+   }
+
+   boolean hasUOM() {
+      return hasUOM;
+   }
+
+   boolean isReferenceTypeData() {
+      return referenceTypeData;
+   }
+
+   boolean isNested() {
+      return nested;
+   }
+
+   /**
+    * Converter of the source values to the JSON type of the field.
+    */
+   ValueConverter getConverter() {
+      return converter;
+   }
+
+   /**
+    * Context keys of the mapping, or null when the mapping is not context specific.
+    */
+   Set<String> getContextKeys() {
+      return contextKeys;
+   }
+
+   /**
+    * Context the values of the source context are written to, like {@link FieldMapping#getDestinationContextKey(String)}
+    * resolves it: a source context listed in the context keys of the mapping is written to the same context.
+    *
+    * @return destination context key, or null when the mapping does not apply to the source context
+    */
+   String getDestinationContextKey(String sourceContextKey) {
+      if (sourceContextKey == null || contextKeys == null) {
+         return null;
+      }
+      return contextKeys.contains(sourceContextKey) ? sourceContextKey : null;
+   }
+
+   /**
+    * Accessor of the source values in the given context, resolved once per context key.
+    */
+   SourceAccessor getSource(String sourceContextKey) {
+      if (Strings.isNullOrEmpty(sourceContextKey)) {
+         return selfSource;
+      }
+      return contextSources.computeIfAbsent(sourceContextKey, key -> new SourceAccessor(TransformerHelper.getSourceFieldInContext(source, key, Constants.Mappings.VALUE, 0), sourceAttribute));
+   }
+
+   /**
+    * @return name of the source attribute, or null when the source is not an attribute macro
+    */
+   String getSourceAttribute() {
+      return sourceAttribute;
+   }
+
+   /**
+    * @return name of the attribute read from a relationship element, or null when the source is a plain path
+    */
+   String getRelationshipAttribute() {
+      return relationshipAttribute;
+   }
+
+   /**
+    * Path of the value in a relationship element, relative to the element.
+    */
+   String getRelationshipSourcePath() {
+      return relationshipSourcePath;
+   }
+
+   /**
+    * @return compiled relationship source path, or null when only {@code JsonRecord} understands the path
+    */
+   CompiledPath getRelationshipSource() {
+      return relationshipSource;
+   }
+
+   /**
+    * Name of the mapping in metrics and messages, {@code entityType:source->destination}.
+    */
+   String getLabel() {
+      return label;
+   }
+
+   /**
+    * @return false when the destination path resolves to an empty path and the value is dropped
+    */
+   boolean hasDestination() {
+      checkDestination(destinationTemplate);
+      return !destinationTemplate.isEmpty();
+   }
+
+   CompiledPath getDestination() {
+      return checkDestination(destination);
+   }
+
+   CompiledPath getDestinationValue() {
+      return checkDestination(destinationValue);
+   }
+
+   CompiledPath getDestinationLanguageCode() {
+      return checkDestination(destinationLanguageCode);
+   }
+
+   CompiledPath getDestinationMeasurementUnitCode() {
+      return checkDestination(destinationMeasurementUnitCode);
+   }
+
+   /**
+    * Destination of the code (part 0) or the identifier (part 1) of a referenceTypeData field, or null when the
+    * destination does not define both parts.
+    */
+   CompiledPath getReferenceDestination(int part) {
+      checkDestination(destinationTemplate);
+      return referenceDestinations == null ? null : checkDestination(referenceDestinations[part]);
+   }
+
+   private <T> T checkDestination(T compiled) {
+      if (destinationTemplate == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "field cannot be null");
+      }
+      if (compiled == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "Invalid destination path: " + destinationTemplate);
+      }
+      return compiled;
+   }
+
+   @Override
+   public String toString() {
+      return label;
+   }
+}
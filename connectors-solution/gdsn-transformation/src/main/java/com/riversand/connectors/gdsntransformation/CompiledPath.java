@@ -0,0 +1,348 @@
+/*
+   FILE: CompiledPath.java
+
+   PURPOSE: Dotted JSON path parsed once into segments, to read and write Gson trees without re-parsing the path.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.google.common.base.Strings;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Supports the path syntax of {@code JsonRecord}: {@code name(.name)*} where each name may be followed by an array
+ * index, e.g. {@code data.attributes.gtin.values[0].value}. Destination templates may use {@code [%d]} (or {@code [%s]})
+ * as index, the placeholder is replaced by the index given to {@link #find(JsonElement, int)} or
+ * {@link #set(JsonObject, int, JsonElement)}.
+ */
+final class CompiledPath {
+   static final int NO_INDEX = -1;
+   static final int INDEX_PLACEHOLDER = -2;
+
+   private final String path;
+   private final String[] names;
+   private final int[] indices;
+   private final boolean placeholder;
+   private CompiledPath parent;
+
+   private CompiledPath(String path, String[] names, int[] indices) {
+      this.path = path;
+      this.names = names;
+      this.indices = indices;
+      boolean hasPlaceholder = false;
+      for (int index : indices) {
+         hasPlaceholder |= index == INDEX_PLACEHOLDER;
+      }
+      this.placeholder = hasPlaceholder;
+   }
+
+   /**
+    * @throws ConnectIllegalArgumentException when the path is malformed
+    */
+   static CompiledPath compile(String path) {
+      CompiledPath compiledPath = tryCompile(path);
+      if (compiledPath == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "Invalid path: " + path);
+      }
+      return compiledPath;
+   }
+
+   /**
+    * @return compiled path, or null when the path is malformed
+    */
+   static CompiledPath tryCompile(String path) {
+      if (Strings.isNullOrEmpty(path)) {
+         return null;
+      }
+      List<String> names = new ArrayList<>();
+      List<Integer> indices = new ArrayList<>();
+      int start = 0;
+      while (start <= path.length()) {
+         int end = path.indexOf('.', start);
+         if (end == -1) {
+            end = path.length();
+         }
+         int bracket = path.indexOf('[', start);
+         if (bracket != -1 && bracket < end) {
+            int close = path.indexOf(']', bracket);
+            if (close == -1 || close + 1 < path.length() && path.charAt(close + 1) != '.') {
+               return null;
+            }
+            Integer index = parseIndex(path.substring(bracket + 1, close));
+            if (index == null || bracket == start) {
+               return null;
+            }
+            names.add(path.substring(start, bracket));
+            indices.add(index);
+            end = close + 1;
+         } else {
+            if (end == start || path.indexOf(']', start) != -1 && path.indexOf(']', start) < end) {
+               return null;
+            }
+            names.add(path.substring(start, end));
+            indices.add(NO_INDEX);
+         }
+         start = end + 1;
+      }
+      int[] indexArray = new int[indices.size()];
+      for (int i = 0; i < indexArray.length; i++) {
+         indexArray[i] = indices.get(i);
+      }
+      return new CompiledPath(path, names.toArray(new String[0]), indexArray);
+   }
+
+   private static Integer parseIndex(String index) {
+      if ("%d".equals(index) || "%s".equals(index)) {
+         return INDEX_PLACEHOLDER;
+      }
+      if (index.isEmpty() || index.length() > 9) {
+         return null;
+      }
+      for (int i = 0; i < index.length(); i++) {
+         if (!Character.isDigit(index.charAt(i))) {
+            return null;
+         }
+      }
+      return Integer.parseInt(index);
+   }
+
+   /**
+    * @return new path with one more property segment
+    */
+   CompiledPath child(String name) {
+      String[] childNames = Arrays.copyOf(names, names.length + 1);
+      int[] childIndices = Arrays.copyOf(indices, indices.length + 1);
+      childNames[names.length] = name;
+      childIndices[indices.length] = NO_INDEX;
+      CompiledPath child = new CompiledPath(path + "." + name, childNames, childIndices);
+      child.parent = this;
+      return child;
+   }
+
+   /**
+    * @return path without its last segment, or null for a single segment path
+    */
+   CompiledPath parent() {
+      if (parent == null && names.length > 1) {
+         // racy but idempotent, paths are immutable
+         parent = prefix(names.length - 1);
+      }
+      return parent;
+   }
+
+   /**
+    * @return true when the path uses the index placeholder in any segment
+    */
+   boolean hasPlaceholder() {
+      return placeholder;
+   }
+
+   /**
+    * @return path without the given trailing property segments, or null when the path does not end with them
+    */
+   CompiledPath trimTrailing(String... trailing) {
+      int depth = names.length - trailing.length;
+      if (depth < 1) {
+         return null;
+      }
+      for (int i = 0; i < trailing.length; i++) {
+         if (!names[depth + i].equals(trailing[i]) || indices[depth + i] != NO_INDEX) {
+            return null;
+         }
+      }
+      return prefix(depth);
+   }
+
+   /**
+    * @return path below the given prefix path, or null when this path does not start with the prefix or equals it
+    */
+   CompiledPath relativeTo(CompiledPath prefix) {
+      if (prefix.names.length >= names.length) {
+         return null;
+      }
+      for (int i = 0; i < prefix.names.length; i++) {
+         if (!names[i].equals(prefix.names[i]) || indices[i] != prefix.indices[i]) {
+            return null;
+         }
+      }
+      return slice(prefix.names.length, names.length);
+   }
+
+   private CompiledPath prefix(int depth) {
+      return slice(0, depth);
+   }
+
+   private CompiledPath slice(int from, int to) {
+      StringBuilder text = new StringBuilder();
+      for (int i = from; i < to; i++) {
+         if (i > from) {
+            text.append('.');
+         }
+         text.append(names[i]);
+         if (indices[i] == INDEX_PLACEHOLDER) {
+            text.append("[%d]");
+         } else if (indices[i] != NO_INDEX) {
+            text.append('[').append(indices[i]).append(']');
+         }
+      }
+      return new CompiledPath(text.toString(), Arrays.copyOfRange(names, from, to), Arrays.copyOfRange(indices, from, to));
+   }
+
+   JsonElement find(JsonElement root) {
+      return find(root, 0);
+   }
+
+   /**
+    * @param index value of the index placeholders
+    * @return element at the path, or null when any segment is missing
+    */
+   JsonElement find(JsonElement root, int index) {
+      JsonElement current = root;
+      for (int i = 0; i < names.length; i++) {
+         if (current == null || !current.isJsonObject()) {
+            return null;
+         }
+         current = current.getAsJsonObject().get(names[i]);
+         int segmentIndex = indices[i] == INDEX_PLACEHOLDER ? index : indices[i];
+         if (segmentIndex != NO_INDEX) {
+            if (current == null || !current.isJsonArray() || current.getAsJsonArray().size() <= segmentIndex) {
+               return null;
+            }
+            current = current.getAsJsonArray().get(segmentIndex);
+         }
+      }
+      return current;
+   }
+
+   JsonArray findArray(JsonElement root) {
+      JsonElement element = find(root, 0);
+      return element != null && element.isJsonArray() ? element.getAsJsonArray() : null;
+   }
+
+   JsonObject findObject(JsonElement root) {
+      JsonElement element = find(root, 0);
+      return element != null && element.isJsonObject() ? element.getAsJsonObject() : null;
+   }
+
+   /**
+    * @return primitive value at the path as string, or null when missing or JSON null
+    */
+   String findString(JsonElement root) {
+      JsonElement element = find(root, 0);
+      if (element == null || element.isJsonNull()) {
+         return null;
+      }
+      return element.isJsonPrimitive() ? element.getAsString() : element.toString();
+   }
+
+   /**
+    * Set the value at the path. Missing objects are created, arrays are padded up to the index.
+    *
+    * @param index value of the index placeholders
+    */
+   void set(JsonObject root, int index, JsonElement value) {
+      setLast(getOrCreateParent(root, index, names.length - 1), index, value);
+   }
+
+   /**
+    * Set the value of the last segment of the path in the given parent object.
+    *
+    * @return element replaced by the value, or null
+    */
+   JsonElement setLast(JsonObject parent, int index, JsonElement value) {
+      int last = names.length - 1;
+      int segmentIndex = indices[last] == INDEX_PLACEHOLDER ? index : indices[last];
+      if (segmentIndex == NO_INDEX) {
+         JsonElement previous = parent.get(names[last]);
+         parent.add(names[last], value);
+         return previous;
+      }
+      JsonArray array = getOrCreateArray(parent, names[last]);
+      while (array.size() <= segmentIndex) {
+         array.add(JsonNull.INSTANCE);
+      }
+      return array.set(segmentIndex, value);
+   }
+
+   /**
+    * @return object of the last segment of the path in the given parent object, created when missing
+    */
+   JsonObject getOrCreateLast(JsonObject parent, int index) {
+      return getOrCreateChild(parent, names.length - 1, index);
+   }
+
+   /**
+    * @return object at the path, created when missing
+    */
+   JsonObject getOrCreateObject(JsonObject root, int index) {
+      return getOrCreateParent(root, index, names.length);
+   }
+
+   private JsonObject getOrCreateParent(JsonObject root, int index, int depth) {
+      JsonObject current = root;
+      for (int i = 0; i < depth; i++) {
+         current = getOrCreateChild(current, i, index);
+      }
+      return current;
+   }
+
+   private JsonObject getOrCreateChild(JsonObject current, int segment, int index) {
+      int segmentIndex = indices[segment] == INDEX_PLACEHOLDER ? index : indices[segment];
+      if (segmentIndex == NO_INDEX) {
+         JsonElement child = current.get(names[segment]);
+         if (child == null || !child.isJsonObject()) {
+            child = new JsonObject();
+            current.add(names[segment], child);
+         }
+         return child.getAsJsonObject();
+      }
+      JsonArray array = getOrCreateArray(current, names[segment]);
+      while (array.size() <= segmentIndex) {
+         array.add(new JsonObject());
+      }
+      JsonElement child = array.get(segmentIndex);
+      if (!child.isJsonObject()) {
+         child = new JsonObject();
+         array.set(segmentIndex, child);
+      }
+      return child.getAsJsonObject();
+   }
+
+   private static JsonArray getOrCreateArray(JsonObject parent, String name) {
+      JsonElement array = parent.get(name);
+      if (array == null || !array.isJsonArray()) {
+         array = new JsonArray();
+         parent.add(name, array);
+      }
+      return array.getAsJsonArray();
+   }
+
+   @Override
+   public boolean equals(Object other) {
+      return this == other || other instanceof CompiledPath && path.equals(((CompiledPath) other).path);
+   }
+
+   @Override
+   public int hashCode() {
+      return path.hashCode();
+   }
+
+   @Override
+   public String toString() {
+      return path;
+   }
+}
@@ -0,0 +1,186 @@
+/*
+   FILE: CompiledProfile.java
+
+   PURPOSE: Immutable compiled state of a transform profile, shared by the transformers of the profile.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import com.google.common.base.Strings;
+
+import com.riversand.rsconnect.common.config.FieldMapping;
+import com.riversand.rsconnect.common.config.TransformConfig;
+
+/**
+ * The compiled plans, the source projection, the context delimiter of the tenant and the string pool of a profile. A
+ * transformer is a view over this state with its own metrics, failure accounting and executor, see
+ * {@link TransformerRegistry}. The state is built from the configuration it was compiled from and never changes; a
+ * changed configuration is compiled into a new profile. A configuration with a mappings config version is recognized
+ * by the version and its settings, one without by {@link #fingerprint(TransformConfig, String)}.
+ */
+final class CompiledProfile {
+   private final String configVersion;
+   private final long settingsFingerprint;
+   private final long configFingerprint;
+   private final TransformPlan plan;
+   private final RelationshipPlan relationshipPlan;
+   private final CompiledPath relationshipRootPath;
+   private final SourceProjection sourceProjection;
+   private final boolean manageSelfDataInContext;
+   private final String contextDelimiter;
+   private final StringPool stringPool;
+   private final String mappingVersion;
+   private final AtomicBoolean warmedUp = new AtomicBoolean();
+
+   /**
+    * @param contextDelimiter context delimiter of the tenant
+    */
+   CompiledProfile(TransformConfig config, String contextDelimiter) {
+      this.configVersion = configVersion(config);
+      this.settingsFingerprint = settingsFingerprint(config);
+      this.configFingerprint = configVersion == null ? fingerprint(config, contextDelimiter) : 0;
+      this.plan = TransformPlan.compile(config.getFieldMap());
+      this.relationshipPlan = TransformPlan.compileRelationships(config.getRelationships() == null ? null : config.getRelationships().getFieldMap());
+      this.relationshipRootPath = CompiledPath.compile(GDSNSettings.getString(config, GDSNSettings.RELATIONSHIP_ROOT_PATH, GDSNSettings.DEFAULT_RELATIONSHIP_ROOT_PATH));
+      this.sourceProjection = new SourceProjection(plan, relationshipPlan);
+      this.manageSelfDataInContext = config.getSettings().isManageSelfDataInContext();
+      this.contextDelimiter = contextDelimiter;
+      this.stringPool = new StringPool(GDSNSettings.getInt(config, GDSNSettings.STRING_POOL_SIZE, 4096));
+      this.mappingVersion = computeMappingVersion(config);
+   }
+
+   /**
+    * Fingerprint of everything the compiled state is built from: the field and relationship mappings, the settings
+    * read by the constructor and the mapping validation mode, so a profile validated as {@code warn} is compiled again
+    * when switched to {@code fail}.
+    */
+   static long fingerprint(TransformConfig config, String contextDelimiter) {
+      Fingerprint fingerprint = new Fingerprint();
+      addFieldMappings(fingerprint, config.getFieldMap());
+      addFieldMappings(fingerprint, config.getRelationships() == null ? null : config.getRelationships().getFieldMap());
+      fingerprint.add(contextDelimiter);
+      return addSettings(fingerprint, config).get();
+   }
+
+   /**
+    * Fingerprint of the settings read by the constructor, without the mappings.
+    */
+   private static long settingsFingerprint(TransformConfig config) {
+      return addSettings(new Fingerprint(), config).get();
+   }
+
+   private static Fingerprint addSettings(Fingerprint fingerprint, TransformConfig config) {
+      fingerprint.add(config.getSettings() != null && config.getSettings().isManageSelfDataInContext());
+      for (String setting : new String[]{GDSNSettings.RELATIONSHIP_ROOT_PATH, GDSNSettings.STRING_POOL_SIZE, GDSNSettings.MAPPING_CONFIG_VERSION, GDSNSettings.MAPPING_VALIDATION}) {
+         fingerprint.add(GDSNSettings.getString(config, setting, null));
+      }
+      return fingerprint;
+   }
+
+   /**
+    * @return configured mappings config version, or null when none is set
+    */
+   private static String configVersion(TransformConfig config) {
+      return Strings.emptyToNull(GDSNSettings.getString(config, GDSNSettings.MAPPING_CONFIG_VERSION, null));
+   }
+
+   private static void addFieldMappings(Fingerprint fingerprint, List<FieldMapping> fieldMappings) {
+      if (fieldMappings == null) {
+         fingerprint.add((String) null);
+         return;
+      }
+      for (FieldMapping fieldMapping : fieldMappings) {
+         if (fieldMapping == null) {
+            fingerprint.add((String) null);
+            continue;
+         }
+         fingerprint.add(fieldMapping.getEntityType()).add(fieldMapping.getSource()).add(fieldMapping.getDestination()).add(fieldMapping.getType());
+         fingerprint.add(fieldMapping.isEnabled()).add(fieldMapping.isCollectionType()).add(fieldMapping.isLocalizable()).add(fieldMapping.hasUOM());
+         fingerprint.add(fieldMapping.getContextKeys() == null ? null : fieldMapping.getContextKeys().toString());
+      }
+   }
+
+   /**
+    * The configured mappings config version and a fingerprint of the compiled mappings, so cached outputs are not
+    * reused once the mappings change, even when the version is not bumped.
+    */
+   private String computeMappingVersion(TransformConfig config) {
+      Fingerprint fingerprint = new Fingerprint();
+      for (EntityPlan entityPlan : plan.getEntityPlans().values()) {
+         addMappings(fingerprint, entityPlan.getMappings());
+      }
+      addMappings(fingerprint, relationshipPlan.getMappings());
+      fingerprint.add(relationshipRootPath.toString()).add(contextDelimiter).add(manageSelfDataInContext);
+      return GDSNSettings.getString(config, GDSNSettings.MAPPING_CONFIG_VERSION, "") + ":" + Long.toHexString(fingerprint.get());
+   }
+
+   private static void addMappings(Fingerprint fingerprint, List<CompiledMapping> mappings) {
+      for (CompiledMapping mapping : mappings) {
+         fingerprint.add(mapping.getLabel()).add(mapping.getType()).add(mapping.isMultiValued()).add(mapping.isLocalizable()).add(mapping.hasUOM());
+         fingerprint.add(mapping.getContextKeys() == null ? null : mapping.getContextKeys().toString());
+      }
+   }
+
+   /**
+    * A configuration with a mappings config version matches when the version and the settings are the same, the
+    * mappings are neither hashed nor the context delimiter looked up. Mappings changed without a new version, or a
+    * changed context delimiter of the tenant, are then picked up after {@link TransformerRegistry#invalidate(String, String)}.
+    *
+    * @param contextDelimiter looks the context delimiter of the tenant up, called only when there is no version
+    * @return true when the profile was compiled from the configuration
+    */
+   boolean matches(TransformConfig config, Supplier<String> contextDelimiter) {
+      String version = configVersion(config);
+      if (version != null || configVersion != null) {
+         return Objects.equals(configVersion, version) && settingsFingerprint == settingsFingerprint(config);
+      }
+      return configFingerprint == fingerprint(config, contextDelimiter.get());
+   }
+
+   /**
+    * @return true for the first caller only, which warms the compiled state up for all transformers of the profile
+    */
+   boolean claimWarmUp() {
+      return warmedUp.compareAndSet(false, true);
+   }
+
+   TransformPlan getPlan() {
+      return plan;
+   }
+
+   RelationshipPlan getRelationshipPlan() {
+      return relationshipPlan;
+   }
+
+   CompiledPath getRelationshipRootPath() {
+      return relationshipRootPath;
+   }
+
+   SourceProjection getSourceProjection() {
+      return sourceProjection;
+   }
+
+   boolean isManageSelfDataInContext() {
+      return manageSelfDataInContext;
+   }
+
+   String getContextDelimiter() {
+      return contextDelimiter;
+   }
+
+   StringPool getStringPool() {
+      return stringPool;
+   }
+
+   String getMappingVersion() {
+      return mappingVersion;
+   }
+}
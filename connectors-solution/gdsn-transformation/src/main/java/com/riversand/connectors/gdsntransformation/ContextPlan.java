@@ -0,0 +1,119 @@
+/*
+   FILE: ContextPlan.java
+
+   PURPOSE: Mappings of an entity type which apply to one source context.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Collections;
+import java.util.List;
+
+import com.google.gson.JsonObject;
+
+/**
+ * Besides the mappings, the plan knows the attribute containers the mappings read from, usually one per context, see
+ * {@link SourceAccessor}. The containers are resolved once per record with {@link #resolveContainers(JsonObject)} and
+ * each entry reads its values from the container at its index.
+ */
+final class ContextPlan {
+   static final int NO_CONTAINER = -1;
+
+   private final String sourceContextKey;
+   private final List<Entry> entries;
+   private final CompiledPath[] containers;
+
+   ContextPlan(String sourceContextKey, List<Entry> entries, List<CompiledPath> containers) {
+      this.sourceContextKey = sourceContextKey;
+      this.entries = Collections.unmodifiableList(entries);
+      this.containers = containers.toArray(new CompiledPath[0]);
+   }
+
+   /**
+    * @return attribute container objects of the record by container index, null entries for missing containers
+    */
+   JsonObject[] resolveContainers(JsonObject record) {
+      JsonObject[] resolved = new JsonObject[containers.length];
+      for (int i = 0; i < containers.length; i++) {
+         resolved[i] = containers[i].findObject(record);
+      }
+      return resolved;
+   }
+
+   /**
+    * @return source context key, null for the self context.
+    */
+   String getSourceContextKey() {
+      return sourceContextKey;
+   }
+
+   List<Entry> getEntries() {
+      return entries;
+   }
+
+   static final class Entry {
+      private final CompiledMapping mapping;
+      private final String destinationContextKey;
+      private final String releasedKey;
+      private final boolean destinationProperties;
+      private final int valueContainer;
+      private final int propertiesContainer;
+      private final NestedGroup nestedGroup;
+
+      /**
+       * @param destinationProperties whether locales and reference identifiers are read in the destination context
+       * @param valueContainer        index of the container of the values, or {@link #NO_CONTAINER}
+       * @param propertiesContainer   index of the container of the destination context properties, or {@link #NO_CONTAINER}
+       * @param nestedGroup           group of a nested mapping, null for other mappings
+       */
+      Entry(CompiledMapping mapping, String destinationContextKey, String releasedKey, boolean destinationProperties, int valueContainer, int propertiesContainer, NestedGroup nestedGroup) {
+         this.mapping = mapping;
+         this.destinationContextKey = destinationContextKey;
+         this.releasedKey = releasedKey;
+         this.destinationProperties = destinationProperties;
+         this.valueContainer = valueContainer;
+         this.propertiesContainer = propertiesContainer;
+         this.nestedGroup = nestedGroup;
+      }
+
+      CompiledMapping getMapping() {
+         return mapping;
+      }
+
+      /**
+       * @return destination context key, null when the value goes to the self context.
+       */
+      String getDestinationContextKey() {
+         return destinationContextKey;
+      }
+
+      /**
+       * @return context key of the mapping which is fulfilled once the mapping ran in this context.
+       */
+      String getReleasedKey() {
+         return releasedKey;
+      }
+
+      boolean readsDestinationProperties() {
+         return destinationProperties;
+      }
+
+      int getValueContainer() {
+         return valueContainer;
+      }
+
+      int getPropertiesContainer() {
+         return propertiesContainer;
+      }
+
+      /**
+       * @return group of the nested mapping, or null when the mapping is not nested or has no valid destination
+       */
+      NestedGroup getNestedGroup() {
+         return nestedGroup;
+      }
+   }
+}
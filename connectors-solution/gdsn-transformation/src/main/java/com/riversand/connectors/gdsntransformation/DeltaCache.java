@@ -0,0 +1,118 @@
+/*
+   FILE: DeltaCache.java
+
+   PURPOSE: Bounded cache of the last output per entity, used by the incremental transformation.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.gson.JsonObject;
+
+/**
+ * One cache per tenant, profile and mapping version, shared by the transformers of that profile in the JVM so a
+ * restarted task still knows what it exported. Entries are keyed by entity type and id. When the mapping version of a
+ * profile changes, the caches of older versions are dropped: their outputs can no longer be reused. The caches are
+ * dropped together with the compiled profiles, see {@link TransformerRegistry}.
+ */
+final class DeltaCache {
+   private static final ConcurrentMap<String, DeltaCache> CACHES = new ConcurrentHashMap<>();
+
+   private final String tenantId;
+   private final String profileId;
+   private final String mappingVersion;
+   private final Cache<String, Entry> entries;
+
+   private DeltaCache(String tenantId, String profileId, String mappingVersion, int maximumSize) {
+      this.tenantId = tenantId;
+      this.profileId = profileId;
+      this.mappingVersion = mappingVersion;
+      this.entries = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+   }
+
+   /**
+    * @param maximumSize number of entities kept, used when the cache is created
+    */
+   static DeltaCache forProfile(String tenantId, String profileId, String mappingVersion, int maximumSize) {
+      String tenant = String.valueOf(tenantId);
+      String profile = String.valueOf(profileId);
+      String key = tenant + "|" + profile + "|" + mappingVersion;
+      DeltaCache cache = CACHES.computeIfAbsent(key, k -> new DeltaCache(tenant, profile, mappingVersion, maximumSize));
+      CACHES.values().removeIf(other -> other.isProfile(tenant, profile) && !other.mappingVersion.equals(mappingVersion));
+      return cache;
+   }
+
+   /**
+    * Drop the caches of every version of the profile of the tenant.
+    */
+   static void invalidate(String tenantId, String profileId) {
+      CACHES.values().removeIf(cache -> cache.isProfile(String.valueOf(tenantId), String.valueOf(profileId)));
+   }
+
+   /**
+    * Drop the caches of all profiles of the tenant.
+    */
+   static void invalidateTenant(String tenantId) {
+      CACHES.values().removeIf(cache -> cache.tenantId.equals(String.valueOf(tenantId)));
+   }
+
+   static void invalidateAll() {
+      CACHES.clear();
+   }
+
+   private boolean isProfile(String tenant, String profile) {
+      return tenantId.equals(tenant) && profileId.equals(profile);
+   }
+
+   Entry get(String entityType, String entityId) {
+      return entries.getIfPresent(entryKey(entityType, entityId));
+   }
+
+   /**
+    * @param output outbound record, the cache keeps it as is and never hands it out
+    */
+   void put(String entityType, String entityId, Fingerprint fingerprint, JsonObject output) {
+      entries.put(entryKey(entityType, entityId), new Entry(fingerprint.getHigh(), fingerprint.getLow(), output));
+   }
+
+   private static String entryKey(String entityType, String entityId) {
+      return entityType + "|" + entityId;
+   }
+
+   long size() {
+      return entries.size();
+   }
+
+   static final class Entry {
+      private final long fingerprintHigh;
+      private final long fingerprintLow;
+      private final JsonObject output;
+
+      private Entry(long fingerprintHigh, long fingerprintLow, JsonObject output) {
+         this.fingerprintHigh = fingerprintHigh;
+         this.fingerprintLow = fingerprintLow;
+         this.output = output;
+      }
+
+      /**
+       * @return true when the output was transformed from a record with the same fingerprint
+       */
+      boolean matches(Fingerprint fingerprint) {
+         return fingerprintHigh == fingerprint.getHigh() && fingerprintLow == fingerprint.getLow();
+      }
+
+      /**
+       * @return copy of the cached output
+       */
+      JsonObject copyOutput() {
+         return output.deepCopy();
+      }
+   }
+}
@@ -0,0 +1,88 @@
+/*
+   FILE: DirectBuffers.java
+
+   PURPOSE: Explicit release of direct and memory-mapped byte buffers.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
+
+/**
+ * The memory of a direct buffer, and the mapping of a mapped one, is otherwise released only when the garbage collector
+ * finds the buffer unreachable, which for a rarely collected old generation can take long after the buffer was dropped.
+ * {@link #free(ByteBuffer)} releases it at once through the cleaner of the buffer: {@code sun.misc.Cleaner} on Java 8,
+ * {@code Unsafe.invokeCleaner} on later versions. Where neither is available the buffer is left to the garbage
+ * collector.
+ * <p>
+ * The buffer, and every duplicate or slice of it, must not be used after it was freed.
+ */
+final class DirectBuffers {
+   private static final ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(DirectBuffers.class);
+   private static final Object UNSAFE;
+   private static final Method INVOKE_CLEANER;
+   private static final Method CLEANER;
+   private static final Method CLEAN;
+
+   static {
+      Object unsafe = null;
+      Method invokeCleaner = null;
+      Method cleaner = null;
+      Method clean = null;
+      try {
+         Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+         invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+         Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+         theUnsafe.setAccessible(true);
+         unsafe = theUnsafe.get(null);
+      } catch (ReflectiveOperationException | RuntimeException ex) {
+         invokeCleaner = null;
+         try {
+            cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+         } catch (ReflectiveOperationException | RuntimeException cleanerEx) {
+            cleaner = null;
+            pmLogger.warn("", Constants.RSCONNECT_SERVICE, RSC_7273, "Direct buffers cannot be freed explicitly, they are left to the garbage collector: " + cleanerEx);
+         }
+      }
+      UNSAFE = unsafe;
+      INVOKE_CLEANER = invokeCleaner;
+      CLEANER = cleaner;
+      CLEAN = clean;
+   }
+
+   private DirectBuffers() {
+   }
+
+   /**
+    * Release the memory or the mapping of the buffer. Heap buffers, duplicates and slices are left alone.
+    */
+   static void free(ByteBuffer buffer) {
+      if (buffer == null || !buffer.isDirect()) {
+         return;
+      }
+      try {
+         if (INVOKE_CLEANER != null) {
+            INVOKE_CLEANER.invoke(UNSAFE, buffer);
+         } else if (CLEANER != null) {
+            Object cleaner = CLEANER.invoke(buffer);
+            if (cleaner != null) {
+               CLEAN.invoke(cleaner);
+            }
+         }
+      } catch (ReflectiveOperationException | RuntimeException ex) {
+         // a duplicate or slice has no cleaner of its own, its memory is released with the buffer it was taken from
+      }
+   }
+}
@@ -0,0 +1,148 @@
+/*
+   FILE: EntityPlan.java
+
+   PURPOSE: Mappings of a single entity type and their applicability per context.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.google.common.base.Strings;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+final class EntityPlan {
+   private final String entityType;
+   private final List<CompiledMapping> mappings;
+   private final ContextPlan selfPlan;
+   private final Set<String> sourceAttributes;
+   private final Map<CompiledMapping, NestedGroup> nestedGroups = new HashMap<>();
+   private final boolean[] nestedChildren;
+   private final ConcurrentMap<String, ContextPlan> contextPlans = new ConcurrentHashMap<>();
+
+   EntityPlan(String entityType, List<CompiledMapping> mappings) {
+      this.entityType = entityType;
+      this.mappings = Collections.unmodifiableList(mappings);
+      this.nestedChildren = new boolean[mappings.size()];
+      for (NestedGroup group : NestedGroup.collect(mappings)) {
+         nestedGroups.put(group.getMapping(), group);
+         group.getChildren().forEach(child -> nestedChildren[child.getOrdinal()] = true);
+      }
+      this.selfPlan = buildPlan(null);
+      List<CompiledMapping> entityMappings = new ArrayList<>();
+      mappings.stream().filter(mapping -> !nestedChildren[mapping.getOrdinal()]).forEach(entityMappings::add);
+      this.sourceAttributes = collectSourceAttributes(entityMappings);
+   }
+
+   /**
+    * Children of nested groups read their attributes in the rows of the group attribute, not in the entity.
+    *
+    * @return names of the source attributes the mappings read, or null when a mapping reads a source which is not an
+    * attribute and every attribute has to be kept
+    */
+   static Set<String> collectSourceAttributes(Collection<CompiledMapping> mappings) {
+      Set<String> attributes = new HashSet<>();
+      for (CompiledMapping mapping : mappings) {
+         if (mapping.getSourceAttribute() == null) {
+            return null;
+         }
+         attributes.add(mapping.getSourceAttribute());
+      }
+      return Collections.unmodifiableSet(attributes);
+   }
+
+   String getEntityType() {
+      return entityType;
+   }
+
+   List<CompiledMapping> getMappings() {
+      return mappings;
+   }
+
+   /**
+    * @see #collectSourceAttributes(Collection)
+    */
+   Set<String> getSourceAttributes() {
+      return sourceAttributes;
+   }
+
+   /**
+    * @return true when the mapping is a child of a nested group, applied only in the rows of the group
+    */
+   boolean isNestedChild(CompiledMapping mapping) {
+      return nestedChildren[mapping.getOrdinal()];
+   }
+
+   /**
+    * Mappings to run when no context is defined, or for the fields which were not defined in any context.
+    */
+   ContextPlan getSelfPlan() {
+      return selfPlan;
+   }
+
+   /**
+    * Mappings which apply to the source context. Context keys come from the records, so the plans are built the first
+    * time a context is seen and shared afterwards.
+    */
+   ContextPlan getContextPlan(String sourceContextKey) {
+      if (Strings.isNullOrEmpty(sourceContextKey)) {
+         return selfPlan;
+      }
+      return contextPlans.computeIfAbsent(sourceContextKey, this::buildPlan);
+   }
+
+   private ContextPlan buildPlan(String sourceContextKey) {
+      List<ContextPlan.Entry> entries = new ArrayList<>();
+      Map<String, Integer> containerIndices = new HashMap<>();
+      List<CompiledPath> containers = new ArrayList<>();
+      for (CompiledMapping mapping : mappings) {
+         if (nestedChildren[mapping.getOrdinal()]) {
+            continue;
+         }
+         String destinationContextKey = mapping.getDestinationContextKey(sourceContextKey);
+         if (!Strings.isNullOrEmpty(sourceContextKey) && Strings.isNullOrEmpty(destinationContextKey)) {
+            continue;
+         }
+         if (!Strings.isNullOrEmpty(destinationContextKey) && destinationContextKey.equalsIgnoreCase(Constants.Mapping.ATTRIBUTES_SELF)) {
+            destinationContextKey = null;
+         }
+         String releasedKey = Strings.isNullOrEmpty(sourceContextKey) || Strings.isNullOrEmpty(destinationContextKey) ? Constants.Mapping.ATTRIBUTES_SELF : sourceContextKey;
+         boolean destinationProperties = (mapping.isLocalizable() || mapping.isReferenceTypeData()) && !Objects.equals(Strings.emptyToNull(sourceContextKey), destinationContextKey);
+         int valueContainer = ContextPlan.NO_CONTAINER;
+         int propertiesContainer = ContextPlan.NO_CONTAINER;
+         if (!Strings.isNullOrEmpty(mapping.getSource())) {
+            valueContainer = containerIndex(mapping.getSource(sourceContextKey), containerIndices, containers);
+            if (destinationProperties) {
+               propertiesContainer = containerIndex(mapping.getSource(destinationContextKey), containerIndices, containers);
+            }
+         }
+         entries.add(new ContextPlan.Entry(mapping, destinationContextKey, releasedKey, destinationProperties, valueContainer, propertiesContainer, nestedGroups.get(mapping)));
+      }
+      return new ContextPlan(sourceContextKey, entries, containers);
+   }
+
+   private static int containerIndex(SourceAccessor accessor, Map<String, Integer> containerIndices, List<CompiledPath> containers) {
+      CompiledPath containerPath = accessor.getContainerPath();
+      if (containerPath == null) {
+         return ContextPlan.NO_CONTAINER;
+      }
+      return containerIndices.computeIfAbsent(containerPath.toString(), path -> {
+         containers.add(containerPath);
+         return containers.size() - 1;
+      });
+   }
+}
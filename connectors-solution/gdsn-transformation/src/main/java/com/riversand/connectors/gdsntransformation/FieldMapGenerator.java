@@ -6,9 +6,11 @@
 */
 package com.riversand.connectors.gdsntransformation;
 
-import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.collections.CollectionUtils;
 import org.elasticsearch.common.Strings;
@@ -20,6 +22,7 @@ import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
 import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
 import com.riversand.rsconnect.common.config.FieldMapping;
 import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.config.TransformConfig;
 import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
 import com.riversand.rsconnect.common.transform.FieldMetadata;
 import com.riversand.rsconnect.common.transform.IFieldMapGenerator;
@@ -30,6 +33,8 @@ public class FieldMapGenerator implements IFieldMapGenerator {
    private static ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(FieldMapGenerator.class);
    private RSConnectContext connectContext;
    private String configId;
+   private String configVersion;
+   private long cacheTtlMillis;
 
    /**
     * Constructor.
@@ -45,6 +50,11 @@ public class FieldMapGenerator implements IFieldMapGenerator {
                             IServiceClient iServiceClient) {
       this.connectContext = connectContext;
       this.configId = connectContext.getConnectProfile().getTransform().getSettings().getAdditionalSetting("mappingConfig");
+      TransformConfig transformConfig = connectContext.getConnectProfile().getTransform();
+      this.configVersion = GDSNSettings.getString(transformConfig, GDSNSettings.MAPPING_CONFIG_VERSION, "");
+      // without a version an edited config cannot be told apart from the cached one
+      int defaultTtl = this.configVersion.isEmpty() ? 0 : 300;
+      this.cacheTtlMillis = TimeUnit.SECONDS.toMillis(GDSNSettings.getInt(transformConfig, GDSNSettings.MAPPING_CONFIG_CACHE_TTL, defaultTtl));
    }
 
    @Override
@@ -52,17 +62,51 @@ public class FieldMapGenerator implements IFieldMapGenerator {
       if (Strings.isNullOrEmpty(this.configId)) {
          throw new ConnectRuntimeException("RSC7820", "Mappings config id is missing.");
       }
-      JsonObject dataObject = TransformerHelper.getConfigDataObject(connectContext.getExecutionContext().getTenantId(), this.configId,  "mappings", null);
-      List<FieldMapping> fieldMappings = new ArrayList<>();
-      fieldMappings.addAll(TransformerHelper.getFieldMappings(dataObject, "jsonData.mappings"));
-      List<FieldMapping> relationshipMap = TransformerHelper.getFieldMappings(dataObject, "jsonData.relationshipMappings");
+      String tenantId = connectContext.getExecutionContext().getTenantId();
+      MappingConfigCache.MappingConfig mappingConfig = MappingConfigCache.getInstance().get(tenantId, this.configId, this.configVersion, this.cacheTtlMillis, () -> {
+         JsonObject dataObject = getConfigDataObject(tenantId, this.configId);
+         return new MappingConfigCache.MappingConfig(TransformerHelper.getFieldMappings(dataObject, "jsonData.mappings"), TransformerHelper.getFieldMappings(dataObject, "jsonData.relationshipMappings"));
+      });
+      List<FieldMapping> fieldMappings = mappingConfig.copyMappings();
+      List<FieldMapping> relationshipMap = mappingConfig.copyRelationshipMappings();
       if(CollectionUtils.isNotEmpty(relationshipMap)) {
-         connectContext.getConnectProfile().getTransform().getRelationships().getFieldMap().addAll(relationshipMap);
+         addRelationshipMappings(connectContext.getConnectProfile().getTransform().getRelationships().getFieldMap(), relationshipMap);
       }
 
       return fieldMappings;
    }
 
+   /**
+    * Add the relationship mappings which are not in the profile yet, so generating again does not duplicate them.
+    */
+   private static void addRelationshipMappings(List<FieldMapping> profileMappings, List<FieldMapping> relationshipMap) {
+      synchronized (profileMappings) {
+         Set<String> existing = new HashSet<>();
+         for (FieldMapping fieldMapping : profileMappings) {
+            existing.add(getRelationshipMappingKey(fieldMapping));
+         }
+         for (FieldMapping fieldMapping : relationshipMap) {
+            if (existing.add(getRelationshipMappingKey(fieldMapping))) {
+               profileMappings.add(fieldMapping);
+            }
+         }
+      }
+   }
+
+   private static String getRelationshipMappingKey(FieldMapping fieldMapping) {
+      return fieldMapping.getEntityType() + "|" + fieldMapping.getSource() + "|" + fieldMapping.getDestination() + "|" + fieldMapping.getType();
+   }
+
+   /**
+    * Load the mappings config object of the tenant.
+    *
+    * @param tenantId - tenant of the execution context
+    * @param configId - id of the mappings config
+    */
+   protected JsonObject getConfigDataObject(String tenantId, String configId) throws Exception {
+      return TransformerHelper.getConfigDataObject(tenantId, configId, "mappings", null);
+   }
+
    @Override
    public Map<String, Map<String, FieldMetadata>> getMetadata() {
       return null;
@@ -0,0 +1,155 @@
+/*
+   FILE: Fingerprint.java
+
+   PURPOSE: 128 bit FNV-1a hash of strings and JSON trees, used to detect unchanged records.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+/**
+ * JSON trees are hashed structurally: a type tag per element, member names and primitive values in tree order. No
+ * intermediate string of the tree is built. The hash has 128 bits, so the incremental transformation can take equal
+ * fingerprints for unchanged records; {@link #get()} folds it to 64 bits for the configuration fingerprints.
+ */
+final class Fingerprint {
+   private static final long OFFSET_BASIS_HIGH = 0x6c62272e07bb0142L;
+   private static final long OFFSET_BASIS_LOW = 0x62b821756295c58dL;
+   /**
+    * The 128 bit prime is 2^88 + PRIME_LOW.
+    */
+   private static final long PRIME_LOW = 0x13bL;
+   private static final int PRIME_SHIFT = 88 - 64;
+   private static final String CONTEXTS = "contexts";
+
+   private long high = OFFSET_BASIS_HIGH;
+   private long low = OFFSET_BASIS_LOW;
+
+   Fingerprint add(String value) {
+      if (value == null) {
+         return addByte(0);
+      }
+      addByte(1);
+      for (int i = 0; i < value.length(); i++) {
+         char c = value.charAt(i);
+         addByte(c >>> 8);
+         addByte(c);
+      }
+      return addByte(0xff);
+   }
+
+   Fingerprint add(boolean value) {
+      return addByte(value ? 3 : 2);
+   }
+
+   Fingerprint add(JsonElement element) {
+      if (element == null || element.isJsonNull()) {
+         return addByte('n');
+      }
+      if (element.isJsonObject()) {
+         addByte('{');
+         for (Map.Entry<String, JsonElement> member : element.getAsJsonObject().entrySet()) {
+            add(member.getKey());
+            add(member.getValue());
+         }
+         return addByte('}');
+      }
+      if (element.isJsonArray()) {
+         addByte('[');
+         for (JsonElement item : element.getAsJsonArray()) {
+            add(item);
+         }
+         return addByte(']');
+      }
+      addByte('p');
+      return add(element.getAsString());
+   }
+
+   /**
+    * Add the parts of an RSJSON entity the transformation reads: the top level values, the given attributes of self
+    * and of every context, the context definitions and, when requested, the relationships. Objects such as the
+    * {@code properties} audit data are left out, they change on every save without changing the output.
+    *
+    * @param attributes names of the attributes to add, null for all
+    */
+   Fingerprint addEntity(JsonObject entity, Set<String> attributes, boolean relationships) {
+      for (Map.Entry<String, JsonElement> member : entity.entrySet()) {
+         if (member.getValue().isJsonPrimitive()) {
+            add(member.getKey());
+            add(member.getValue());
+         }
+      }
+      JsonElement data = entity.get(Constants.DATA);
+      if (data == null || !data.isJsonObject()) {
+         return this;
+      }
+      addAttributes(data.getAsJsonObject().get(Constants.ATTRIBUTES), attributes);
+      JsonElement contexts = data.getAsJsonObject().get(CONTEXTS);
+      if (contexts != null && contexts.isJsonArray()) {
+         for (JsonElement context : contexts.getAsJsonArray()) {
+            if (context.isJsonObject()) {
+               for (Map.Entry<String, JsonElement> member : context.getAsJsonObject().entrySet()) {
+                  if (Constants.ATTRIBUTES.equals(member.getKey())) {
+                     addAttributes(member.getValue(), attributes);
+                  } else if (!Constants.OPERATION_SEARCH_RELATIONSHIPS.equals(member.getKey())) {
+                     add(member.getKey());
+                     add(member.getValue());
+                  }
+               }
+            }
+         }
+      }
+      if (relationships) {
+         add(data.getAsJsonObject().get(Constants.OPERATION_SEARCH_RELATIONSHIPS));
+      }
+      return this;
+   }
+
+   private void addAttributes(JsonElement attributesElement, Set<String> attributes) {
+      if (attributesElement == null || !attributesElement.isJsonObject()) {
+         addByte('-');
+         return;
+      }
+      addByte('a');
+      for (Map.Entry<String, JsonElement> attribute : attributesElement.getAsJsonObject().entrySet()) {
+         if (attributes == null || attributes.contains(attribute.getKey())) {
+            add(attribute.getKey());
+            add(attribute.getValue());
+         }
+      }
+   }
+
+   /**
+    * @return the hash folded to 64 bits
+    */
+   long get() {
+      return high ^ low;
+   }
+
+   long getHigh() {
+      return high;
+   }
+
+   long getLow() {
+      return low;
+   }
+
+   private Fingerprint addByte(int value) {
+      low ^= value & 0xff;
+      // (high, low) * (2^88 + PRIME_LOW) mod 2^128
+      long carry = ((low >>> 32) * PRIME_LOW + (((low & 0xffffffffL) * PRIME_LOW) >>> 32)) >>> 32;
+      high = high * PRIME_LOW + carry + (low << PRIME_SHIFT);
+      low *= PRIME_LOW;
+      return this;
+   }
+}
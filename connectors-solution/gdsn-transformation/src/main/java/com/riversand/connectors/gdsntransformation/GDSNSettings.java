@@ -0,0 +1,147 @@
+/*
+   FILE: GDSNSettings.java
+
+   PURPOSE: Typed access to the GDSN specific additional settings of the transform profile.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.math.BigDecimal;
+
+import com.google.common.base.Strings;
+
+import com.riversand.rsconnect.common.config.TransformConfig;
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Settings are read from {@code transform.settings.additionalSettings}, next to {@code mappingConfig}.
+ */
+final class GDSNSettings {
+   /**
+    * Number of threads used by {@link GDSNTransformer#transformBatch}. Defaults to the number of available processors.
+    */
+   static final String TRANSFORM_PARALLELISM = "transformParallelism";
+   /**
+    * Publish {@link TransformStatistics} of the profile through JMX. Disabled by default.
+    */
+   static final String METRICS_ENABLED = "metricsEnabled";
+   /**
+    * One in this many records is timed per mapping when metrics are enabled. Defaults to 100.
+    */
+   static final String METRICS_SAMPLE_RATE = "metricsSampleRate";
+   /**
+    * Output path the relationship arrays are written under, one property per relationship type.
+    */
+   static final String RELATIONSHIP_ROOT_PATH = "relationshipRootPath";
+   static final String DEFAULT_RELATIONSHIP_ROOT_PATH = "nextLowerLevelTradeItemInformation";
+   /**
+    * Relationship arrays with at least this many elements are transformed in parallel chunks. Defaults to 512, 0
+    * disables parallel relationship transformation.
+    */
+   static final String RELATIONSHIP_PARALLEL_THRESHOLD = "relationshipParallelThreshold";
+   /**
+    * Version of the mappings config, part of the {@link MappingConfigCache} key. Bump it to pick up a changed config
+    * before the cached one expires.
+    */
+   static final String MAPPING_CONFIG_VERSION = "mappingConfigVersion";
+   /**
+    * Seconds a cached mappings config stays fresh, 0 disables the cache. Defaults to 300 when a
+    * {@link #MAPPING_CONFIG_VERSION} is set, otherwise to 0 so an edited config is picked up by the next run.
+    */
+   static final String MAPPING_CONFIG_CACHE_TTL = "mappingConfigCacheTtlSeconds";
+   /**
+    * Incremental transformation: {@code off} (default), {@code reuse} to return the cached output of records whose
+    * mapped source values did not change, or {@code changedOnly} to leave those records out of batches and pipelines.
+    */
+   static final String DELTA_MODE = "deltaMode";
+   static final String DELTA_MODE_OFF = "off";
+   static final String DELTA_MODE_REUSE = "reuse";
+   static final String DELTA_MODE_CHANGED_ONLY = "changedOnly";
+   /**
+    * Number of entities the incremental transformation remembers per profile. Defaults to 10000.
+    */
+   static final String DELTA_CACHE_SIZE = "deltaCacheSize";
+   /**
+    * Directory of the spill files of {@link SpillingBatchBuffer}. Defaults to {@code java.io.tmpdir}.
+    */
+   static final String BATCH_SPILL_DIRECTORY = "batchSpillDirectory";
+   /**
+    * Megabytes of off-heap memory a {@link SpillingBatchBuffer} uses before it spills to disk. Defaults to 64.
+    */
+   static final String BATCH_MEMORY_BUDGET_MB = "batchMemoryBudgetMb";
+   /**
+    * Records a {@link SpillingBatchBuffer} transforms together. Defaults to 1000.
+    */
+   static final String BATCH_CHUNK_SIZE = "batchChunkSize";
+   /**
+    * Distinct locale, unit and reference codes the transformer shares between output records. Defaults to 4096, 0
+    * disables the pool.
+    */
+   static final String STRING_POOL_SIZE = "stringPoolSize";
+   /**
+    * Errors reported per mapping and minute in the status detail and the log. Defaults to 10.
+    */
+   static final String FIELD_ERROR_REPORT_LIMIT = "fieldErrorReportLimit";
+   /**
+    * Failures after which a mapping is skipped for the rest of the run. Defaults to 0, mappings are never skipped.
+    */
+   static final String MAPPING_FAILURE_THRESHOLD = "mappingFailureThreshold";
+   /**
+    * Validation of the mappings when the transformer is created: {@code off}, {@code warn} (default) to log the
+    * problems found, or {@code fail} to refuse the profile with the complete report.
+    */
+   static final String MAPPING_VALIDATION = "mappingValidation";
+   static final String MAPPING_VALIDATION_OFF = "off";
+   static final String MAPPING_VALIDATION_WARN = "warn";
+   static final String MAPPING_VALIDATION_FAIL = "fail";
+   /**
+    * Synthetic records transformed per entity type when the transformer is created, so the first real records run on
+    * compiled code. Defaults to 0, no warm-up.
+    */
+   static final String WARM_UP_RECORDS = "warmUpRecords";
+   /**
+    * Threads transforming the records of a {@link TransformPipeline}. Defaults to the number of available processors.
+    */
+   static final String PIPELINE_WORKERS = "pipelineWorkers";
+   /**
+    * Records each handoff queue of a {@link TransformPipeline} holds before the collector waits. Defaults to 1024.
+    */
+   static final String PIPELINE_QUEUE_CAPACITY = "pipelineQueueCapacity";
+
+   private GDSNSettings() {
+   }
+
+   static String getString(TransformConfig config, String key, String defaultValue) {
+      if (config == null || config.getSettings() == null) {
+         return defaultValue;
+      }
+      Object value = config.getSettings().getAdditionalSetting(key);
+      if (value == null || Strings.isNullOrEmpty(String.valueOf(value).trim())) {
+         return defaultValue;
+      }
+      return String.valueOf(value).trim();
+   }
+
+   static int getInt(TransformConfig config, String key, int defaultValue) {
+      String value = getString(config, key, null);
+      if (value == null) {
+         return defaultValue;
+      }
+      try {
+         // JSON numbers of the profile may arrive as doubles, e.g. 2.0
+         return new BigDecimal(value).intValueExact();
+      } catch (NumberFormatException | ArithmeticException ex) {
+         throw new ConnectIllegalArgumentException(RSC_7820, String.format("Setting '%s' must be a number, found '%s'", key, value));
+      }
+   }
+
+   static boolean getBoolean(TransformConfig config, String key, boolean defaultValue) {
+      String value = getString(config, key, null);
+      return value == null ? defaultValue : Boolean.parseBoolean(value);
+   }
+}
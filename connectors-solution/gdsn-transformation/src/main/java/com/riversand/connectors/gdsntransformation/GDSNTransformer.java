@@ -9,11 +9,29 @@
 */
 package com.riversand.connectors.gdsntransformation;
 
-import java.util.Iterator;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
-import java.util.StringJoiner;
-import java.util.regex.Pattern;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 import org.apache.commons.collections.CollectionUtils;
 
@@ -21,18 +39,17 @@ import com.google.common.base.Strings;
 import com.google.gson.JsonArray;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
 import com.riversand.connectors.extension.helpers.TransformerHelper;
 import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
 import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
 import com.riversand.rsconnect.common.config.AppConfig;
-import com.riversand.rsconnect.common.config.FieldMapping;
 import com.riversand.rsconnect.common.config.RSConnectContext;
 import com.riversand.rsconnect.common.config.TransformConfig;
 import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
 import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
 import com.riversand.rsconnect.common.rsconnect.driver.Constants;
-import com.riversand.rsconnect.common.transform.FieldMapMacro;
 import com.riversand.rsconnect.interfaces.clients.IServiceClient;
 import com.riversand.rsconnect.interfaces.models.ContextMapping;
 import com.riversand.rsconnect.interfaces.models.IRecord;
@@ -45,19 +62,43 @@ import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
 import static java.util.stream.Collectors.toList;
 
 public class GDSNTransformer implements IRecordTransformer {
+   private static final CompiledPath RELATIONSHIPS_PATH = CompiledPath.compile(Constants.DATA + "." + Constants.OPERATION_SEARCH_RELATIONSHIPS);
+   private static final int MIN_RELATIONSHIP_CHUNK = 64;
+   private static final String ENTITY_ID = "id";
+   private static final CompiledPath ENTITY_ID_PATH = CompiledPath.compile(ENTITY_ID);
+   private static final CompiledPath REL_TO_ATTRIBUTES_PATH = CompiledPath.compile("relTo.data." + Constants.ATTRIBUTES);
+   private static final CompiledPath FIRST_VALUE_PATH = CompiledPath.tryCompile(Constants.VALUES_ARRAY);
 
    private ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(GDSNTransformer.class);
    private RSConnectContext connectContext;
    private TransformConfig config;
+   private CompiledProfile profile;
+   private TransformPlan plan;
+   private RelationshipPlan relationshipPlan;
+   private CompiledPath relationshipRootPath;
+   private int relationshipParallelThreshold;
+   private SourceProjection sourceProjection;
    private boolean manageSelfDataInContext;
    private String contextDelimiter;
+   private int parallelism;
+   private ExecutorService batchExecutor;
+   private boolean ownsBatchExecutor;
+   private volatile TransformMetrics metrics = TransformMetrics.NOOP;
+   private int metricsSampleRate;
+   private DeltaCache deltaCache;
+   private StringPool stringPool;
+   private MappingFailures mappingFailures;
+   private final ThreadLocal<OutputBuilder> outputBuilders = ThreadLocal.withInitial(OutputBuilder::new);
+   private boolean emitChangedOnly;
+   private final Set<TransformPipeline> pipelines = ConcurrentHashMap.newKeySet();
 
    public GDSNTransformer(RSConnectContext connectContext, IServiceClient client) {
       this(connectContext);
    }
 
    /**
-    * Class to transform the data from source format to destination format using with fieldMappings
+    * Class to transform the data from source format to destination format using with fieldMappings. The compiled
+    * mappings are shared with the other transformers of the tenant and profile, see {@link TransformerRegistry}.
     *
     * @param connectContext - Contains execution context and profile configuration
     */
@@ -67,19 +108,165 @@ public class GDSNTransformer implements IRecordTransformer {
       if (CollectionUtils.isEmpty(this.config.getFieldMap())) {
          throw new ConnectIllegalArgumentException(RSC_7820, "fieldMaps are empty");
       }
-      this.manageSelfDataInContext = this.config.getSettings().isManageSelfDataInContext();
-      this.contextDelimiter = AppConfig.getInstance().getContextDelimiter(connectContext.getExecutionContext().getTenantId());
+      String tenantId = connectContext.getExecutionContext().getTenantId();
+      String profileId = connectContext.getConnectProfile().getId();
+      CompiledProfile sharedProfile = TransformerRegistry.getInstance().get(tenantId, profileId, this.config, () -> AppConfig.getInstance().getContextDelimiter(tenantId), this::validateMappings);
+      this.profile = sharedProfile;
+      this.plan = sharedProfile.getPlan();
+      this.relationshipPlan = sharedProfile.getRelationshipPlan();
+      this.relationshipRootPath = sharedProfile.getRelationshipRootPath();
+      this.sourceProjection = sharedProfile.getSourceProjection();
+      this.manageSelfDataInContext = sharedProfile.isManageSelfDataInContext();
+      this.contextDelimiter = sharedProfile.getContextDelimiter();
+      this.stringPool = sharedProfile.getStringPool();
+      this.relationshipParallelThreshold = GDSNSettings.getInt(this.config, GDSNSettings.RELATIONSHIP_PARALLEL_THRESHOLD, 512);
+      this.parallelism = Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.TRANSFORM_PARALLELISM, Runtime.getRuntime().availableProcessors()));
+      this.mappingFailures = new MappingFailures(GDSNSettings.getInt(this.config, GDSNSettings.FIELD_ERROR_REPORT_LIMIT, 10), GDSNSettings.getInt(this.config, GDSNSettings.MAPPING_FAILURE_THRESHOLD, 0));
+      this.metricsSampleRate = Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.METRICS_SAMPLE_RATE, 100));
+      if (GDSNSettings.getBoolean(this.config, GDSNSettings.METRICS_ENABLED, false)) {
+         this.metrics = TransformStatistics.forProfile(connectContext.getConnectProfile().getId());
+      }
+      String deltaMode = GDSNSettings.getString(this.config, GDSNSettings.DELTA_MODE, GDSNSettings.DELTA_MODE_OFF);
+      if (GDSNSettings.DELTA_MODE_REUSE.equalsIgnoreCase(deltaMode) || GDSNSettings.DELTA_MODE_CHANGED_ONLY.equalsIgnoreCase(deltaMode)) {
+         int cacheSize = Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.DELTA_CACHE_SIZE, 10000));
+         this.deltaCache = DeltaCache.forProfile(tenantId, profileId, sharedProfile.getMappingVersion(), cacheSize);
+         this.emitChangedOnly = GDSNSettings.DELTA_MODE_CHANGED_ONLY.equalsIgnoreCase(deltaMode);
+      } else if (!GDSNSettings.DELTA_MODE_OFF.equalsIgnoreCase(deltaMode)) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "Unknown deltaMode: " + deltaMode);
+      }
+      int warmUpRecords = GDSNSettings.getInt(this.config, GDSNSettings.WARM_UP_RECORDS, 0);
+      if (warmUpRecords > 0 && sharedProfile.claimWarmUp()) {
+         warmUp(warmUpRecords);
+      }
+   }
+
+   /**
+    * Validate the field and relationship mappings of a transform profile without creating a transformer.
+    *
+    * @return problems found, one line per problem. Empty when all mappings are valid.
+    */
+   public static List<String> validateMappings(TransformConfig config) {
+      return MappingValidator.validate(config.getFieldMap(), config.getRelationships() == null ? null : config.getRelationships().getFieldMap());
+   }
+
+   private void validateMappings() {
+      String validation = GDSNSettings.getString(this.config, GDSNSettings.MAPPING_VALIDATION, GDSNSettings.MAPPING_VALIDATION_WARN);
+      if (GDSNSettings.MAPPING_VALIDATION_OFF.equalsIgnoreCase(validation)) {
+         return;
+      }
+      List<String> problems = validateMappings(this.config);
+      if (problems.isEmpty()) {
+         return;
+      }
+      String report = String.format("%d invalid mapping(s) in profile %s:%n%s", problems.size(), connectContext.getConnectProfile().getId(), String.join(System.lineSeparator(), problems));
+      if (GDSNSettings.MAPPING_VALIDATION_FAIL.equalsIgnoreCase(validation)) {
+         throw new ConnectIllegalArgumentException(RSC_7820, report);
+      }
+      pmLogger.warn("", Constants.RSCONNECT_SERVICE, RSC_7273, report);
+   }
+
+   /**
+    * Transform synthetic records of every entity type, without metrics and failure accounting, so the first real
+    * records do not run on interpreted code. A failing warm-up is logged and ends the warm-up.
+    */
+   private void warmUp(int records) {
+      if (records <= 0) {
+         return;
+      }
+      TransformMetrics recordMetrics = this.metrics;
+      MappingFailures failures = this.mappingFailures;
+      this.metrics = TransformMetrics.NOOP;
+      this.mappingFailures = new MappingFailures(0, 0);
+      try {
+         List<JsonObject> entities = WarmUpRecords.create(plan, relationshipPlan);
+         for (int i = 0; i < records; i++) {
+            for (JsonObject entity : entities) {
+               transform(new JsonRecord(entity, null), null);
+            }
+         }
+      } catch (Exception ex) {
+         pmLogger.warn("", Constants.RSCONNECT_SERVICE, RSC_7273, "Transformer warm-up failed: " + ex.getMessage());
+      } finally {
+         this.mappingFailures = failures;
+         this.metrics = recordMetrics;
+      }
+   }
+
+   /**
+    * @return the attributes, contexts and relationships of the inbound entities the mappings read, and the filter
+    * dropping the rest before the transformation
+    */
+   public SourceProjection getSourceProjection() {
+      return sourceProjection;
+   }
+
+   /**
+    * @return compiled state shared with the transformers of the same tenant and profile
+    */
+   CompiledProfile getCompiledProfile() {
+      return profile;
+   }
+
+   /**
+    * Report measurements to the given metrics instead of the JMX statistics of the profile.
+    *
+    * @param metrics    - receiver of the measurements, {@link TransformMetrics#NOOP} to disable
+    * @param sampleRate - one in this many records is timed per mapping
+    */
+   public void setMetrics(TransformMetrics metrics, int sampleRate) {
+      if (metrics == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "metrics cannot be null");
+      }
+      this.metricsSampleRate = Math.max(1, sampleRate);
+      this.metrics = metrics;
+   }
+
+   public TransformMetrics getMetrics() {
+      return metrics;
+   }
+
+   /**
+    * Use the given executor for batch transformation instead of the fork-join pool owned by the transformer, for example
+    * a virtual-thread executor. The executor is not shut down on {@link #close()}.
+    *
+    * @param executor    - executor running the batch chunks
+    * @param parallelism - number of records the executor transforms concurrently, used to size the batch chunks
+    */
+   public synchronized void setBatchExecutor(ExecutorService executor, int parallelism) {
+      if (executor == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "batch executor cannot be null");
+      }
+      shutdownBatchExecutor();
+      this.batchExecutor = executor;
+      this.ownsBatchExecutor = false;
+      this.parallelism = Math.max(1, parallelism);
    }
 
    /**
     * Transform record data into destination format.
     *
     * @param record   input IRecord: Sample supports only JsonRecord
-    * @param messages To Log messages when transform not happened with the field.
-    * @return IRecord of output format
+    * @param messages To Log messages when transform not happened with the field. A mapping failing on the record adds
+    *                 a JSON error message, rate limited per mapping.
+    * @return IRecord of output format. In the {@code changedOnly} delta mode an unchanged record is returned like in the
+    * {@code reuse} mode, only {@link #transformBatch(List, List)} and the {@link TransformPipeline} leave it out.
     */
    @Override
    public IRecord transform(IRecord record, RdpStatusDetail messages) {
+      return transform(record, messages, false);
+   }
+
+   /**
+    * Transform a record of a batch or of a pipeline, which leave out unchanged records in the {@code changedOnly} delta
+    * mode.
+    *
+    * @return IRecord of output format, or null when the record did not change and only changed records are emitted
+    */
+   IRecord transformChanged(IRecord record, RdpStatusDetail messages) {
+      return transform(record, messages, emitChangedOnly);
+   }
+
+   private IRecord transform(IRecord record, RdpStatusDetail messages, boolean skipUnchanged) {
       if (!(record instanceof JsonRecord)) {
          throw new ConnectRuntimeException(RSC_7820, "Record doesn't support for transformation");
       }
@@ -89,21 +276,207 @@ public class GDSNTransformer implements IRecordTransformer {
          throw new ConnectRuntimeException(RSC_7820, "Failed to get entityType from Object" + ((JsonRecord) record).getJsonObject());
       }
 
-      IRecord outboundRecord = transformRecord(record, entityType);
-      transformRelationshipRecords(entityType, record, outboundRecord);
+      TransformMetrics recordMetrics = this.metrics;
+      long start = recordMetrics == TransformMetrics.NOOP ? 0 : System.nanoTime();
+      IRecord outboundRecord;
+      if (deltaCache == null) {
+         outboundRecord = transformRecord(record, entityType, messages);
+         transformRelationshipRecords(entityType, record, outboundRecord, messages);
+      } else {
+         outboundRecord = transformIncremental(record, entityType, messages, skipUnchanged);
+      }
+      if (recordMetrics != TransformMetrics.NOOP) {
+         recordMetrics.recordTransformed(entityType, System.nanoTime() - start);
+      }
+      return outboundRecord;
+   }
+
+   /**
+    * Transform the record unless the fingerprint of its mapped source values matches the one of the last output for
+    * the entity. Records without id are always transformed.
+    *
+    * @param skipUnchanged return null instead of the cached output of an unchanged record
+    * @return outbound record, or null when the record did not change and is skipped
+    */
+   private IRecord transformIncremental(IRecord inboundRecord, String entityType, RdpStatusDetail messages, boolean skipUnchanged) {
+      String entityId = inboundRecord.getValue(ENTITY_ID);
+      JsonObject inboundObject = ((JsonRecord) inboundRecord).getJsonObject();
+      Fingerprint fingerprint = null;
+      if (!Strings.isNullOrEmpty(entityId)) {
+         EntityPlan entityPlan = plan.getEntityPlan(entityType);
+         fingerprint = new Fingerprint().addEntity(inboundObject, entityPlan == null ? Collections.emptySet() : entityPlan.getSourceAttributes(), !relationshipPlan.isEmpty());
+         DeltaCache.Entry cached = deltaCache.get(entityType, entityId);
+         if (cached != null && cached.matches(fingerprint)) {
+            return skipUnchanged ? null : new JsonRecord(cached.copyOutput(), null);
+         }
+      }
+      IRecord outboundRecord = transformRecord(inboundRecord, entityType, messages);
+      transformRelationshipRecords(entityType, inboundRecord, outboundRecord, messages);
+      if (fingerprint != null) {
+         deltaCache.put(entityType, entityId, fingerprint, ((JsonRecord) outboundRecord).getJsonObject().deepCopy());
+      }
       return outboundRecord;
    }
 
+   /**
+    * Projected read: the RSJSON entity is read token by token and only the attributes, contexts and relationships the
+    * mappings reference are materialized before the record is transformed like
+    * {@link #transform(IRecord, RdpStatusDetail)} transforms it. The stream is not closed.
+    *
+    * @param inbound  RSJSON entity
+    * @param messages To Log messages when transform not happened with the field.
+    * @return IRecord of output format
+    */
+   public IRecord transformProjected(InputStream inbound, RdpStatusDetail messages) throws IOException {
+      JsonReader reader = new JsonReader(new InputStreamReader(inbound, StandardCharsets.UTF_8));
+      return transform(new JsonRecord(sourceProjection.read(reader), null), messages);
+   }
+
+   /**
+    * Transform a batch of records in parallel. Outbound records are returned in the order of the inbound records.
+    *
+    * @param records  input records: Sample supports only JsonRecord
+    * @param messages optional status detail per record, same size and order as records. Entries may be null.
+    * @return IRecords of output format, in input order. Unchanged records are left out in the {@code changedOnly} delta
+    * mode.
+    */
+   public List<IRecord> transformBatch(List<? extends IRecord> records, List<RdpStatusDetail> messages) {
+      if (CollectionUtils.isEmpty(records)) {
+         return new ArrayList<>();
+      }
+      if (messages != null && messages.size() != records.size()) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "messages must match the records of the batch");
+      }
+      IRecord[] outboundRecords = new IRecord[records.size()];
+      int chunkSize = Math.max(1, (records.size() + parallelism * 4 - 1) / (parallelism * 4));
+      if (parallelism == 1 || records.size() <= chunkSize) {
+         transformChunk(records, messages, outboundRecords, 0, records.size());
+         return toOutboundList(outboundRecords);
+      }
+
+      ExecutorService executor = getBatchExecutor();
+      List<Future<?>> chunks = new ArrayList<>();
+      for (int start = 0; start < records.size(); start += chunkSize) {
+         int from = start;
+         int to = Math.min(records.size(), start + chunkSize);
+         chunks.add(executor.submit(() -> transformChunk(records, messages, outboundRecords, from, to)));
+      }
+      try {
+         for (Future<?> chunk : chunks) {
+            chunk.get();
+         }
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         chunks.forEach(chunk -> chunk.cancel(true));
+         throw new ConnectRuntimeException(RSC_7820, "Batch transformation was interrupted");
+      } catch (ExecutionException ex) {
+         chunks.forEach(chunk -> chunk.cancel(true));
+         if (ex.getCause() instanceof RuntimeException) {
+            throw (RuntimeException) ex.getCause();
+         }
+         throw new ConnectRuntimeException(RSC_7820, "Batch transformation failed: " + ex.getCause());
+      }
+      return toOutboundList(outboundRecords);
+   }
+
+   private List<IRecord> toOutboundList(IRecord[] outboundRecords) {
+      if (!emitChangedOnly) {
+         return new ArrayList<>(Arrays.asList(outboundRecords));
+      }
+      List<IRecord> changedRecords = new ArrayList<>();
+      for (IRecord outboundRecord : outboundRecords) {
+         if (outboundRecord != null) {
+            changedRecords.add(outboundRecord);
+         }
+      }
+      return changedRecords;
+   }
+
+   /**
+    * Transform a stream of records in parallel, see {@link #transformBatch(List, List)}.
+    */
+   public List<IRecord> transformBatch(Stream<? extends IRecord> records) {
+      return transformBatch(records.collect(toList()), null);
+   }
+
+   /**
+    * Create a batch buffer for very large batches, configured by the batch spill settings of the profile. The caller
+    * closes the buffer.
+    */
+   public SpillingBatchBuffer newBatchBuffer() {
+      Path directory = Paths.get(GDSNSettings.getString(this.config, GDSNSettings.BATCH_SPILL_DIRECTORY, System.getProperty("java.io.tmpdir")));
+      long memoryBudget = Math.max(0, GDSNSettings.getInt(this.config, GDSNSettings.BATCH_MEMORY_BUDGET_MB, 64)) * 1024L * 1024L;
+      return new SpillingBatchBuffer(this, directory, memoryBudget, Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.BATCH_CHUNK_SIZE, 1000)));
+   }
+
+   /**
+    * Create a pipeline transforming records on worker threads between the collector and the publisher, configured by
+    * the pipeline settings of the profile. Records are published in batches of the publish batch size of the profile.
+    * Open pipelines are drained when the transformer is closed.
+    *
+    * @param publisher receives the outbound records, one batch at a time
+    * @param messages  status detail receiving the mapping errors, may be null
+    */
+   public TransformPipeline newPipeline(Consumer<List<IRecord>> publisher, RdpStatusDetail messages) {
+      int workers = Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.PIPELINE_WORKERS, Runtime.getRuntime().availableProcessors()));
+      int queueCapacity = Math.max(1, GDSNSettings.getInt(this.config, GDSNSettings.PIPELINE_QUEUE_CAPACITY, 1024));
+      int batchSize = Math.max(1, connectContext.getConnectProfile().getPublish().getFormat().getBatchSize());
+      TransformPipeline pipeline = new TransformPipeline(this, publisher, messages, workers, queueCapacity, batchSize);
+      pipelines.add(pipeline);
+      return pipeline;
+   }
+
+   void pipelineClosed(TransformPipeline pipeline) {
+      pipelines.remove(pipeline);
+   }
+
+   private void transformChunk(List<? extends IRecord> records, List<RdpStatusDetail> messages, IRecord[] outboundRecords, int from, int to) {
+      for (int i = from; i < to; i++) {
+         outboundRecords[i] = transformChanged(records.get(i), messages == null ? null : messages.get(i));
+      }
+   }
+
+   private synchronized ExecutorService getBatchExecutor() {
+      if (batchExecutor == null) {
+         batchExecutor = new ForkJoinPool(parallelism);
+         ownsBatchExecutor = true;
+      }
+      return batchExecutor;
+   }
+
+   private synchronized void shutdownBatchExecutor() {
+      if (batchExecutor != null && ownsBatchExecutor) {
+         batchExecutor.shutdown();
+      }
+      batchExecutor = null;
+      ownsBatchExecutor = false;
+   }
+
    /**
     * Method to transform record to JsonRecord
     *
     * @param inboundRecord - Input Record
     * @param entityType    - entity Type
+    * @param messages      - status detail receiving the mapping errors, may be null
     */
-   private IRecord transformRecord(IRecord inboundRecord, String entityType) {
-      //Copy to new List
-      List<FieldMapping> fieldMap = config.getFieldMap().stream().map(FieldMapping::new).collect(toList());
+   private IRecord transformRecord(IRecord inboundRecord, String entityType, RdpStatusDetail messages) {
       IRecord outboundRecord = new JsonRecord();
+      EntityPlan entityPlan = plan.getEntityPlan(entityType);
+      if (entityPlan == null) {
+         return outboundRecord;
+      }
+      boolean sampled = metrics != TransformMetrics.NOOP && ThreadLocalRandom.current().nextInt(metricsSampleRate) == 0;
+      RecordMappingState state = new RecordMappingState(entityPlan, sampled);
+      OutputBuilder output = outputBuilders.get().reset(((JsonRecord) outboundRecord).getJsonObject());
+      try {
+         setRecordValues(inboundRecord, output, entityPlan, state, messages);
+      } finally {
+         output.release();
+      }
+      return outboundRecord;
+   }
+
+   private void setRecordValues(IRecord inboundRecord, OutputBuilder output, EntityPlan entityPlan, RecordMappingState state, RdpStatusDetail messages) {
       JsonObject inboundObject = ((JsonRecord) inboundRecord).getJsonObject();
       List<ContextMapping> contexts = TransformerHelper.getContextMappings(inboundObject, connectContext.getConnectProfile().getCollect().getFormat().getType(), connectContext.getConnectProfile().getPublish().getFormat().getType(), contextDelimiter);
       Boolean isContextRecord = false;
@@ -120,23 +493,22 @@ public class GDSNTransformer implements IRecordTransformer {
 
             // The context is defined, set all fields defined in this context.
             isContextRecord = true;
-            getAndSetRecordValues(inboundRecord, outboundRecord, entityType, contextKey, fieldMap);
+            getAndSetRecordValues(inboundRecord, output, entityPlan.getContextPlan(contextKey), state, messages);
          }
       }
       // No context defined or some fields were not defined in any context, set field values in self context.
-      if ((!isContextRecord || this.manageSelfDataInContext) && !fieldMap.isEmpty()) {
-         getAndSetRecordValues(inboundRecord, outboundRecord, entityType, null, fieldMap);
+      if ((!isContextRecord || this.manageSelfDataInContext) && state.hasRemaining()) {
+         getAndSetRecordValues(inboundRecord, output, entityPlan.getSelfPlan(), state, messages);
       }
-      return outboundRecord;
    }
 
-   private void transformRelationshipRecords(String entityType, IRecord inboundRecord, IRecord outboundRecord) {
+   private void transformRelationshipRecords(String entityType, IRecord inboundRecord, IRecord outboundRecord, RdpStatusDetail messages) {
       try {
-         JsonElement relationships = JsonRecord.findObject(((JsonRecord) inboundRecord).getJsonObject(), String.format("%s.%s", Constants.DATA, Constants.OPERATION_SEARCH_RELATIONSHIPS));
+         JsonObject inboundObject = ((JsonRecord) inboundRecord).getJsonObject();
+         JsonElement relationships = RELATIONSHIPS_PATH.findObject(inboundObject);
          if (relationships != null && relationships.isJsonObject()) {
-            List<FieldMapping> mappings = config.getRelationships().getFieldMap();
-            if (CollectionUtils.isNotEmpty(mappings)) {
-               transformRelationships(entityType, outboundRecord, relationships, mappings);
+            if (!relationshipPlan.isEmpty()) {
+               transformRelationships(entityType, inboundObject, outboundRecord, relationships, messages);
             }
          }
       } catch (Exception ex) {
@@ -144,266 +516,300 @@ public class GDSNTransformer implements IRecordTransformer {
       }
    }
 
-   private void transformRelationships(String entityType, IRecord outboundRecord, JsonElement relationships, List<FieldMapping> mappings) {
+   private void transformRelationships(String entityType, JsonObject inboundObject, IRecord outboundRecord, JsonElement relationships, RdpStatusDetail messages) {
+      List<CompiledMapping> mappings = relationshipPlan.getMappings(entityType);
+      int elements = 0;
       for (Map.Entry<String, JsonElement> entry : relationships.getAsJsonObject().entrySet()) {
          if (entry.getValue() != null && entry.getValue().isJsonArray()) {
-            JsonArray jsonArray = new JsonArray();
-            for (JsonElement element : entry.getValue().getAsJsonArray()) {
-               if (element.isJsonObject()) {
-                  JsonRecord outboundRelRecord = getAndSetRelationshipAttributeValues(entityType, new JsonRecord(element.getAsJsonObject(), null), mappings);
-                  setRelToAttributeValues(element, outboundRelRecord);
-                  jsonArray.add(outboundRelRecord.getJsonObject());
+            JsonArray jsonArray = transformRelationshipElements(entry.getValue().getAsJsonArray(), mappings, inboundObject, messages);
+            elements += jsonArray.size();
+            relationshipRootPath.getOrCreateObject(((JsonRecord) outboundRecord).getJsonObject(), 0).add(entry.getKey(), jsonArray);
+         }
+      }
+      if (elements > 0) {
+         metrics.relationshipsTransformed(entityType, elements);
+      }
+   }
+
+   /**
+    * Transform the elements of one relationship type, in element order. Large arrays are split in chunks which the
+    * calling thread and up to parallelism - 1 helpers of the batch executor claim one by one. The calling thread only
+    * waits for chunks which are already claimed, so nesting in a batch transformation cannot exhaust the executor.
+    */
+   private JsonArray transformRelationshipElements(JsonArray elements, List<CompiledMapping> mappings, JsonObject inboundObject, RdpStatusDetail messages) {
+      int size = elements.size();
+      JsonObject[] outboundElements = new JsonObject[size];
+      if (parallelism == 1 || relationshipParallelThreshold <= 0 || size < relationshipParallelThreshold) {
+         transformRelationshipChunk(elements, mappings, inboundObject, messages, outboundElements, 0, size);
+      } else {
+         int chunkSize = Math.max(MIN_RELATIONSHIP_CHUNK, (size + parallelism * 4 - 1) / (parallelism * 4));
+         int chunkCount = (size + chunkSize - 1) / chunkSize;
+         AtomicInteger nextChunk = new AtomicInteger();
+         CountDownLatch done = new CountDownLatch(chunkCount);
+         AtomicReference<RuntimeException> failure = new AtomicReference<>();
+         Runnable worker = () -> {
+            for (int chunk = nextChunk.getAndIncrement(); chunk < chunkCount; chunk = nextChunk.getAndIncrement()) {
+               try {
+                  if (failure.get() == null) {
+                     int from = chunk * chunkSize;
+                     transformRelationshipChunk(elements, mappings, inboundObject, messages, outboundElements, from, Math.min(size, from + chunkSize));
+                  }
+               } catch (RuntimeException ex) {
+                  failure.compareAndSet(null, ex);
+               } finally {
+                  done.countDown();
                }
             }
-            //read root path of relationship from profile config.
-            String path = String.format("nextLowerLevelTradeItemInformation.%s", entry.getKey());
-            JsonRecord.setValue(((JsonRecord) outboundRecord).getJsonObject(), path, jsonArray);
+         };
+         ExecutorService executor = getBatchExecutor();
+         List<Future<?>> helpers = new ArrayList<>();
+         for (int i = 1; i < Math.min(parallelism, chunkCount); i++) {
+            helpers.add(executor.submit(worker));
+         }
+         worker.run();
+         // helpers which did not start yet have nothing left to do
+         helpers.forEach(helper -> helper.cancel(false));
+         try {
+            done.await();
+         } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new ConnectRuntimeException(RSC_7820, "Relationship transformation was interrupted");
+         }
+         if (failure.get() != null) {
+            throw failure.get();
          }
       }
+      JsonArray jsonArray = new JsonArray();
+      for (JsonObject outboundElement : outboundElements) {
+         if (outboundElement != null) {
+            jsonArray.add(outboundElement);
+         }
+      }
+      return jsonArray;
    }
 
-   private void setRelToAttributeValues(JsonElement element, JsonRecord outboundRelRecord) {
-      JsonObject relToAttributesElement = JsonRecord.findObject(element, "relTo.data." + Constants.ATTRIBUTES);
+   private void transformRelationshipChunk(JsonArray elements, List<CompiledMapping> mappings, JsonObject inboundObject, RdpStatusDetail messages, JsonObject[] outboundElements, int from, int to) {
+      OutputBuilder output = outputBuilders.get();
+      try {
+         for (int i = from; i < to; i++) {
+            JsonElement element = elements.get(i);
+            if (element.isJsonObject()) {
+               JsonObject outboundRelRecord = getAndSetRelationshipAttributeValues(element.getAsJsonObject(), mappings, inboundObject, messages, output.reset(new JsonObject()));
+               setRelToAttributeValues(element, outboundRelRecord);
+               outboundElements[i] = outboundRelRecord;
+            }
+         }
+      } finally {
+         output.release();
+      }
+   }
+
+   private void setRelToAttributeValues(JsonElement element, JsonObject outboundRelRecord) {
+      JsonObject relToAttributesElement = REL_TO_ATTRIBUTES_PATH.findObject(element);
       if (relToAttributesElement != null) {
          for (Map.Entry<String, JsonElement> attribute : relToAttributesElement.entrySet()) {
-            String value = JsonRecord.getValue(attribute.getValue(), Constants.VALUES_ARRAY);
+            String value = findString(attribute.getValue(), FIRST_VALUE_PATH, Constants.VALUES_ARRAY);
             if (!Strings.isNullOrEmpty(value)) {
-               JsonRecord.setValue(outboundRelRecord.getJsonObject(), attribute.getKey(), value);
+               outboundRelRecord.addProperty(stringPool.intern(attribute.getKey()), value);
             }
          }
       }
    }
 
-   private JsonRecord getAndSetRelationshipAttributeValues(String entityType, JsonRecord record, List<FieldMapping> mappings) {
-      IRecord outboundRecord = new JsonRecord();
-      Iterator<FieldMapping> iterator = mappings.iterator();
-      while (iterator.hasNext()) {
-         FieldMapping fieldMapping = iterator.next();
-         if (fieldMapping.getEntityType().equals(entityType)) {
-            String value = getRelationshipValue(record, fieldMapping, Constants.Mappings.VALUE);
+   /**
+    * A failing mapping is reported and the element keeps the values of the other mappings.
+    *
+    * @param mappings      relationship mappings of the parent entity type
+    * @param inboundObject parent entity, to report failures
+    * @param output        builder of the outbound element
+    */
+   private JsonObject getAndSetRelationshipAttributeValues(JsonObject relationship, List<CompiledMapping> mappings, JsonObject inboundObject, RdpStatusDetail messages, OutputBuilder output) {
+      for (CompiledMapping mapping : mappings) {
+         if (mappingFailures.isDisabled(mapping)) {
+            continue;
+         }
+         try {
+            String value = getRelationshipValue(relationship, mapping);
             if (!Strings.isNullOrEmpty(value)) {
-               setValue(outboundRecord, value, null, fieldMapping, null, record);
+               setValue(output, SourceValues.of(value), mapping);
             }
+         } catch (Exception ex) {
+            metrics.mappingFailed(mapping.getLabel());
+            mappingFailures.failed(mapping, ENTITY_ID_PATH.findString(inboundObject), null, ex, messages);
          }
       }
-      return ((JsonRecord) outboundRecord);
+      return output.getRoot();
    }
 
-   private String getRelationshipValue(IRecord inbound, FieldMapping fieldMapping, String key) {
-      String attributePath = "";
-      String field = fieldMapping.getSource();
-      if (Strings.isNullOrEmpty(field)) {
+   private String getRelationshipValue(JsonObject relationship, CompiledMapping mapping) {
+      if (Strings.isNullOrEmpty(mapping.getSource())) {
          throw new ConnectIllegalArgumentException(RSC_7820, "source cannot be empty. Method: getrelationshipValue");
       }
-      if (FieldMapMacro.isAttribute(field)) {
-         String attributeName = FieldMapMacro.getAttribute(field);
-         attributePath = String.format("attributes.%s.values[0].%s", attributeName, key);
-      } else if (FieldMapMacro.isRelationshipAttribute(field) || FieldMapMacro.isRelToAttribute(field)) {
-         FieldMapMacro.RelAttrMacroValues macroValues = FieldMapMacro.getValuesFromRelationshipAttribute(null, field);
-         attributePath = String.format("attributes.%s.values[0].%s", macroValues.attributeName, key);
-      }
-      if (Strings.isNullOrEmpty(attributePath)) {
-         attributePath = field;
-      }
-      return inbound.getValue(attributePath);
+      return findString(relationship, mapping.getRelationshipSource(), mapping.getRelationshipSourcePath());
    }
 
    /**
-    * Set all fields defined in this entity and context.
+    * Read through the compiled path, or through JsonRecord when the path could not be compiled.
     */
-   private void getAndSetRecordValues(IRecord inboundRecord, IRecord outboundRecord, String entityType, String sourceContextKey, List<FieldMapping> fieldMap) {
-      try {
-         Iterator<FieldMapping> iterator = fieldMap.iterator();
-         while (iterator.hasNext()) {
-            FieldMapping fieldMapping = iterator.next();
-            if (!fieldMapping.isEnabled() || fieldMapping.getEntityType() == null || !fieldMapping.getEntityType().equals(entityType)) {
-               continue;
-            }
-            //Get destination context key for this field mapping.
-            String destinationContextKey = fieldMapping.getDestinationContextKey(sourceContextKey);
+   private static String findString(JsonElement element, CompiledPath compiledPath, String path) {
+      return compiledPath != null ? compiledPath.findString(element) : JsonRecord.getValue(element, path);
+   }
 
-            if (Strings.isNullOrEmpty(sourceContextKey) || !Strings.isNullOrEmpty(destinationContextKey)) {
-               if (!Strings.isNullOrEmpty(destinationContextKey) && destinationContextKey.equalsIgnoreCase(Constants.Mapping.ATTRIBUTES_SELF)) {
-                  destinationContextKey = null;
+   /**
+    * Set all fields defined in this entity and context. A failing mapping is reported and not released, the other
+    * mappings are still applied.
+    */
+   private void getAndSetRecordValues(IRecord inboundRecord, OutputBuilder output, ContextPlan contextPlan, RecordMappingState state, RdpStatusDetail messages) {
+      String sourceContextKey = contextPlan.getSourceContextKey();
+      JsonObject inboundObject = ((JsonRecord) inboundRecord).getJsonObject();
+      JsonObject[] containers = contextPlan.resolveContainers(inboundObject);
+      boolean sampled = state.isSampled();
+      for (ContextPlan.Entry entry : contextPlan.getEntries()) {
+         CompiledMapping mapping = entry.getMapping();
+         if (state.isFulfilled(mapping) || mappingFailures.isDisabled(mapping)) {
+            continue;
+         }
+         try {
+            long start = sampled ? System.nanoTime() : 0;
+            if (mapping.isNested()) {
+               if (!setNestedValues(inboundObject, containers, output, sourceContextKey, entry) && sampled) {
+                  metrics.mappingMissed(mapping.getLabel());
                }
-
-               if (isFieldPathAttribute(fieldMapping, "nested")) {
-                  //TODO: Nested attriute implementation
-                  //setRecordValueForNestedAttributes(inboundRecord, outboundRecord, fieldMapping, sourceContextKey, destinationContextKey);
+            } else {
+               SourceValues values = getValue(inboundObject, containers, sourceContextKey, entry);
+               if (!values.isEmpty()) {
+                  setValue(output, values, mapping);
                } else {
-                  int index = 0;
-                  String value = getValue(inboundRecord, sourceContextKey, fieldMapping, index);
-                  if (!Strings.isNullOrEmpty(value)) {
-                     String uomValue = null;
-                     if (fieldMapping.hasUOM()) {
-                        uomValue = TransformerHelper.getValueFromUOMField(inboundRecord, sourceContextKey, config.getSettings().getCollectionSeparator(), fieldMapping, index, value);
-                     }
-                     setValue(outboundRecord, value, destinationContextKey, fieldMapping, uomValue, inboundRecord);
-                  } else {
-                     pmLogger.debug("", Constants.RSCONNECT_SERVICE, RSC_7273, fieldMapping.getSource());
+                  pmLogger.debug("", Constants.RSCONNECT_SERVICE, RSC_7273, mapping.getSource());
+                  if (sampled) {
+                     metrics.mappingMissed(mapping.getLabel());
                   }
                }
-               if (fieldMapping.getContextKeys() != null) {
-                  if (Strings.isNullOrEmpty(sourceContextKey) || Strings.isNullOrEmpty(destinationContextKey)) {
-                     fieldMapping.getContextKeys().remove(Constants.Mapping.ATTRIBUTES_SELF);
-                  } else {
-                     fieldMapping.getContextKeys().remove(sourceContextKey);
-                  }
-               }
-               if (fieldMapping.getContextKeys() == null || fieldMapping.getContextKeys().size() == 0) {
-                  iterator.remove();
-               }
             }
+            if (sampled) {
+               metrics.mappingApplied(mapping.getLabel(), System.nanoTime() - start);
+            }
+            if (!Strings.isNullOrEmpty(sourceContextKey)) {
+               state.release(mapping, entry.getReleasedKey());
+            }
+         } catch (Exception ex) {
+            metrics.mappingFailed(mapping.getLabel());
+            mappingFailures.failed(mapping, ENTITY_ID_PATH.findString(inboundObject), sourceContextKey, ex, messages);
          }
-      } catch (Exception ex) {
-         pmLogger.error("", Constants.RSCONNECT_SERVICE, RSC_7273, ex);
       }
    }
 
    /**
-    * Get the value of this field.
+    * Set the child mappings of a nested group in each row. The rows are read in one pass; a row object is only created
+    * when one of its children has values, at the row index of the group.
+    *
+    * @return false when the record has no rows for the group
     */
-   private String getValue(IRecord record, String sourceContextKey, FieldMapping fieldMapping, int index, Integer... parentIndices) {
-      if (fieldMapping.isCollectionType() || fieldMapping.isLocalizable()) {
-         StringJoiner joiner = new StringJoiner(config.getSettings().getCollectionSeparator());
-         index = 0;
-         while (true) {
-            String value = getValueInContext(record, fieldMapping, sourceContextKey, index, parentIndices);
-            // When null, we have reached the end of the array.
-            if (Strings.isNullOrEmpty(value)) {
-               break;
+   private boolean setNestedValues(JsonObject record, JsonObject[] containers, OutputBuilder output, String sourceContextKey, ContextPlan.Entry entry) {
+      NestedGroup group = entry.getNestedGroup();
+      if (group == null) {
+         return false;
+      }
+      SourceAccessor accessor = group.getMapping().getSource(sourceContextKey);
+      int container = entry.getValueContainer();
+      JsonArray rows = container == ContextPlan.NO_CONTAINER ? accessor.findGroup(record) : accessor.findGroupIn(containers[container]);
+      if (rows == null || rows.size() == 0) {
+         return false;
+      }
+      OutputBuilder rowBuilder = output.rowBuilder();
+      for (int rowIndex = 0; rowIndex < rows.size(); rowIndex++) {
+         if (!rows.get(rowIndex).isJsonObject()) {
+            continue;
+         }
+         JsonObject row = rows.get(rowIndex).getAsJsonObject();
+         JsonObject rowObject = null;
+         for (CompiledMapping child : group.getChildren()) {
+            if (child.getSourceAttribute() == null || !child.hasDestination()) {
+               continue;
+            }
+            JsonArray values = SourceAccessor.findValuesInRow(row, child.getSourceAttribute());
+            SourceValues childValues = SourceValues.read(child, values, values);
+            if (childValues.isEmpty()) {
+               continue;
             }
-            joiner.add(value);
-            index++;
+            if (rowObject == null) {
+               rowObject = output.getOrCreateObject(group.getRowPath(), rowIndex);
+               rowBuilder.reset(rowObject);
+            }
+            setValue(rowBuilder, childValues, child);
          }
-         return joiner.toString();
-      } else {
-         return getValueInContext(record, fieldMapping, sourceContextKey, index, parentIndices);
       }
-   }
-
-   private boolean isFieldPathAttribute(FieldMapping fieldMapping, String fieldPath) {
-      return fieldMapping.getType() != null && fieldMapping.getType().equalsIgnoreCase(fieldPath);
+      return true;
    }
 
    /**
-    * Get value from record. If value not found, check in self context. To support flat hierarchy RSJSON format.
+    * Get the values of this field. The values array is read from the attribute container of the context, resolved once
+    * per record, and read in one pass. Locales and reference data identifiers are read in the destination context.
     */
-   private String getValueInContext(IRecord record, FieldMapping fieldMapping, String sourceContextKey, int index, Integer... parentIndices) {
-      String attributePath = TransformerHelper.getSourceFieldInContext(fieldMapping.getSource(), sourceContextKey, Constants.Mappings.VALUE, 0, parentIndices);
-      index = getIndex(record, fieldMapping, index, attributePath);
-
-      return TransformerHelper.getSourceFieldValue(record, fieldMapping, sourceContextKey, Constants.Mappings.VALUE, index, parentIndices);
-   }
-
-   private int getIndex(IRecord record, FieldMapping fieldMapping, int index, String attributePath) {
-      attributePath = attributePath.replaceAll(Pattern.quote("[0].value"), "").replaceAll(Pattern.quote("[0].src"), "");
-      JsonArray values = JsonRecord.findArray(((JsonRecord) record).getJsonObject(), attributePath);
-      int matchCount = 0;
-      if (values != null && values.size() > 0) {
-         int loopIndex = 0;
-         for (JsonElement valueElement : values) {
-            ++matchCount;
-            if (!fieldMapping.isCollectionType() && !fieldMapping.isLocalizable()) {
-               index = loopIndex;
-               break;
-            } else {
-               if (index == matchCount - 1) {
-                  index = loopIndex;
-                  break;
-               }
-            }
-            ++loopIndex;
-         }
-         if (loopIndex == values.size()) {
-            index = loopIndex;
-         }
-      }
-      if (matchCount == 0) {
-         index = 10000;
+   private SourceValues getValue(JsonObject record, JsonObject[] containers, String sourceContextKey, ContextPlan.Entry entry) {
+      CompiledMapping mapping = entry.getMapping();
+      JsonArray values = findValues(record, containers, mapping.getSource(sourceContextKey), entry.getValueContainer());
+      JsonArray properties = values;
+      if (entry.readsDestinationProperties()) {
+         properties = findValues(record, containers, mapping.getSource(entry.getDestinationContextKey()), entry.getPropertiesContainer());
       }
-      return index;
+      return SourceValues.read(mapping, values, properties);
+   }
+
+   private static JsonArray findValues(JsonObject record, JsonObject[] containers, SourceAccessor accessor, int container) {
+      return container == ContextPlan.NO_CONTAINER ? accessor.findValues(record) : accessor.findValuesIn(containers[container]);
    }
 
    /**
-    * Set the value of this field in specified context.
+    * Set the values of this field.
     */
-   private void setValue(IRecord record, String value, String contextKey, FieldMapping fieldMapping, String uom, IRecord inboundRecord) {
-      int index = 0;
-      if (fieldMapping.isCollectionType() || fieldMapping.isLocalizable()) {
-         String[] uoms = null;
-         if (fieldMapping.hasUOM() && !Strings.isNullOrEmpty(uom)) {
-            uoms = uom.split(Pattern.quote(config.getSettings().getCollectionSeparator()));
-         }
-         for (String subValue : value.split(Pattern.quote(config.getSettings().getCollectionSeparator()))) {
-            String field = getDestinationField(fieldMapping.getDestination(), index, fieldMapping);
-            if (!Strings.isNullOrEmpty(field)) {
-               String uomValue = null;
-               if (fieldMapping.hasUOM() && uoms != null && index < uoms.length) {
-                  uomValue = uoms[index];
-               }
-               setFieldValue(inboundRecord, record, contextKey, fieldMapping, index, subValue, field, uomValue);
-               index++;
-            }
-         }
-      } else {
-         String field = getDestinationField(fieldMapping.getDestination(), index, fieldMapping);
-         if (!Strings.isNullOrEmpty(field)) {
-            setFieldValue(inboundRecord, record, contextKey, fieldMapping, index, value, field, uom);
-         }
+   private void setValue(OutputBuilder output, SourceValues values, CompiledMapping mapping) {
+      if (!mapping.hasDestination()) {
+         return;
+      }
+      for (int index = 0; index < values.size(); index++) {
+         setFieldValue(output, mapping, values, index);
       }
    }
 
-   private void setFieldValue(IRecord inboundRecord, IRecord record, String contextKey, FieldMapping fieldMapping, int index, String subValue, String field, String uomValue) {
-      if (fieldMapping.getType().equalsIgnoreCase("referenceTypeData")) {
-         String[] fields = field.split("#@#");
-         if (fields.length == 2) {
-            field = getDestinationField(fields[0], index, fieldMapping);
-            setValue(record, fieldMapping, subValue, field);
-            subValue = TransformerHelper.getSourceFieldValue(inboundRecord, fieldMapping, contextKey, "properties.referenceDataIdentifier", index);
-            if (subValue != null) {
-               field = getDestinationField(fields[1], index, fieldMapping);
-               setValue(record, fieldMapping, subValue, field);
+   private void setFieldValue(OutputBuilder output, CompiledMapping mapping, SourceValues values, int index) {
+      if (mapping.isReferenceTypeData()) {
+         CompiledPath field = mapping.getReferenceDestination(0);
+         if (field != null) {
+            setCode(output, mapping, values.getValue(index), field, index);
+            String referenceIdentifier = values.getReferenceIdentifier(index);
+            if (referenceIdentifier != null) {
+               setCode(output, mapping, referenceIdentifier, mapping.getReferenceDestination(1), index);
             }
          }
-      } else if (fieldMapping.isLocalizable()) {
-         String locale = TransformerHelper.getSourceFieldValue(inboundRecord, fieldMapping, contextKey, "locale", index);
-         setValue(record, fieldMapping, locale, "%s.languageCode", field);
-         setValue(record, fieldMapping, subValue, "%s.__value__", field);
-      } else if (fieldMapping.hasUOM()) {
-         setValue(record, fieldMapping, uomValue, "%s.measurementUnitCode", field);
-         setValue(record, fieldMapping, subValue, "%s.__value__", field);
+      } else if (mapping.isLocalizable()) {
+         setCode(output, mapping, values.getLocale(index), mapping.getDestinationLanguageCode(), index);
+         setValue(output, mapping, values.getElement(index), mapping.getDestinationValue(), index);
+      } else if (mapping.hasUOM()) {
+         setCode(output, mapping, values.getUom(index), mapping.getDestinationMeasurementUnitCode(), index);
+         setValue(output, mapping, values.getElement(index), mapping.getDestinationValue(), index);
       } else {
-         record.setValue(field, subValue, fieldMapping.getType(), true);
+         setValue(output, mapping, values.getElement(index), mapping.getDestination(), index);
       }
    }
 
-   private void setValue(IRecord record, FieldMapping fieldMapping, String value, String path, Object... params) {
-      String destinationField = String.format(path, params);
-      record.setValue(destinationField, value, fieldMapping.getType(), true);
+   /**
+    * Set the source value, converted to the JSON type of the field without a string step when possible.
+    */
+   private void setValue(OutputBuilder output, CompiledMapping mapping, JsonElement value, CompiledPath path, int index) {
+      output.set(path, index, mapping.getConverter().convert(value));
    }
 
    /**
-    * Get the final destination field which can be understood by the record set/get value.
+    * Set an enumerated value, a locale, unit or reference code, shared through the string pool. Locales, units and
+    * reference identifiers are strings whatever the type of the field is.
     */
-   private String getDestinationField(String field, int index, FieldMapping fieldMapping) {
-      if (Strings.isNullOrEmpty(field)) {
-         throw new ConnectIllegalArgumentException(RSC_7820, "field cannot be null");
-      }
-      if (GDSNFieldMapMacro.isPath(field)) {
-         String path = GDSNFieldMapMacro.getPath(field);
-         if (fieldMapping.getType().equalsIgnoreCase("referenceTypeData")) {
-            return path;
-         }
-         if (fieldMapping.isCollectionType() || fieldMapping.isLocalizable()) {
-            return String.format(path, index);
-         } else {
-            return path;
-         }
-      } else if (fieldMapping.getType().equalsIgnoreCase("referenceTypeData")) {
-         return String.format(field, index);
+   private void setCode(OutputBuilder output, CompiledMapping mapping, String value, CompiledPath path, int index) {
+      if (value == null) {
+         output.set(path, index, mapping.getConverter().convert(value));
+      } else {
+         output.set(path, index, stringPool.primitive(value));
       }
-      return field;
    }
 
    @Override
@@ -414,8 +820,25 @@ public class GDSNTransformer implements IRecordTransformer {
 
    @Override
    public void close() throws Exception {
-      /*
-         Implementation not required in most cases
-       */
+      RuntimeException failure = null;
+      try {
+         // every pipeline is drained even when an earlier one failed
+         for (TransformPipeline pipeline : new ArrayList<>(pipelines)) {
+            try {
+               pipeline.close();
+            } catch (RuntimeException ex) {
+               if (failure == null) {
+                  failure = ex;
+               } else {
+                  failure.addSuppressed(ex);
+               }
+            }
+         }
+      } finally {
+         shutdownBatchExecutor();
+      }
+      if (failure != null) {
+         throw failure;
+      }
    }
 }
\ No newline at end of file
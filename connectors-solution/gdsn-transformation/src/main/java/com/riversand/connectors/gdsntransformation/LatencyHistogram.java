@@ -0,0 +1,78 @@
+/*
+   FILE: LatencyHistogram.java
+
+   PURPOSE: Lock free histogram of durations with power of two buckets.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bucket {@code n} counts durations of {@code n} significant bits, i.e. below {@code 2^n} nanoseconds, so percentiles are reported with a factor two
+ * precision. Recording is one leading-zero count and one {@link LongAdder} increment.
+ */
+final class LatencyHistogram {
+   private static final int BUCKETS = 64;
+
+   private final LongAdder[] buckets = new LongAdder[BUCKETS];
+   private final LongAdder count = new LongAdder();
+   private final LongAdder totalNanos = new LongAdder();
+
+   LatencyHistogram() {
+      for (int i = 0; i < BUCKETS; i++) {
+         buckets[i] = new LongAdder();
+      }
+   }
+
+   void record(long nanos) {
+      long value = Math.max(0, nanos);
+      buckets[BUCKETS - Long.numberOfLeadingZeros(value)].increment();
+      count.increment();
+      totalNanos.add(value);
+   }
+
+   long getCount() {
+      return count.sum();
+   }
+
+   long getTotalNanos() {
+      return totalNanos.sum();
+   }
+
+   /**
+    * @param percentile between 0 and 100
+    * @return upper bound of the bucket holding the percentile, in nanoseconds
+    */
+   long getPercentileNanos(double percentile) {
+      long[] counts = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         counts[i] = buckets[i].sum();
+         total += counts[i];
+      }
+      if (total == 0) {
+         return 0;
+      }
+      long rank = (long) Math.ceil(total * percentile / 100.0);
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         seen += counts[i];
+         if (seen >= rank) {
+            return (1L << i) - 1;
+         }
+      }
+      return Long.MAX_VALUE;
+   }
+
+   void reset() {
+      for (LongAdder bucket : buckets) {
+         bucket.reset();
+      }
+      count.reset();
+      totalNanos.reset();
+   }
+}
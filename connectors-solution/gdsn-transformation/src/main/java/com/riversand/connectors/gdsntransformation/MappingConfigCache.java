@@ -0,0 +1,148 @@
+/*
+   FILE: MappingConfigCache.java
+
+   PURPOSE: Tenant scoped cache of the parsed mapping configs, keyed by config id and version.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+
+import com.riversand.rsconnect.common.config.FieldMapping;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Holds the mappings and relationship mappings of {@code jsonData} per tenant, config id and version, so repeated task
+ * starts neither fetch nor parse the config. The cache is shared by all profiles of the JVM and bounded by
+ * {@link #MAXIMUM_SIZE}; each profile decides how long an entry is fresh, see {@link GDSNSettings#MAPPING_CONFIG_CACHE_TTL}.
+ * Callers always get copies of the cached field mappings.
+ */
+public final class MappingConfigCache {
+   static final int MAXIMUM_SIZE = 256;
+   private static final MappingConfigCache INSTANCE = new MappingConfigCache(MAXIMUM_SIZE);
+
+   private final Cache<Key, MappingConfig> cache;
+
+   MappingConfigCache(int maximumSize) {
+      this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+   }
+
+   public static MappingConfigCache getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * @param ttlMillis age after which the entry is loaded again, 0 to always load
+    * @param loader    fetches and parses the config when it is missing or stale
+    */
+   MappingConfig get(String tenantId, String configId, String version, long ttlMillis, Callable<MappingConfig> loader) throws Exception {
+      Key key = new Key(tenantId, configId, version);
+      if (ttlMillis <= 0) {
+         cache.invalidate(key);
+         return loader.call();
+      }
+      MappingConfig config = cache.getIfPresent(key);
+      if (config != null && System.currentTimeMillis() - config.loadedAt > ttlMillis) {
+         cache.asMap().remove(key, config);
+      }
+      try {
+         return cache.get(key, loader);
+      } catch (ExecutionException | UncheckedExecutionException ex) {
+         if (ex.getCause() instanceof Exception) {
+            throw (Exception) ex.getCause();
+         }
+         throw new ConnectRuntimeException(RSC_7820, "Failed to load mappings config " + configId + ": " + ex.getCause());
+      }
+   }
+
+   /**
+    * Drop every version of the config of the tenant.
+    */
+   public void invalidate(String tenantId, String configId) {
+      cache.asMap().keySet().removeIf(key -> key.tenantId.equals(String.valueOf(tenantId)) && key.configId.equals(String.valueOf(configId)));
+   }
+
+   /**
+    * Drop all configs of the tenant.
+    */
+   public void invalidateTenant(String tenantId) {
+      cache.asMap().keySet().removeIf(key -> key.tenantId.equals(String.valueOf(tenantId)));
+   }
+
+   public void invalidateAll() {
+      cache.invalidateAll();
+   }
+
+   long size() {
+      return cache.size();
+   }
+
+   /**
+    * Parsed {@code jsonData} of a mappings config.
+    */
+   static final class MappingConfig {
+      private final List<FieldMapping> mappings;
+      private final List<FieldMapping> relationshipMappings;
+      private final long loadedAt = System.currentTimeMillis();
+
+      MappingConfig(List<FieldMapping> mappings, List<FieldMapping> relationshipMappings) {
+         this.mappings = mappings == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(mappings));
+         this.relationshipMappings = relationshipMappings == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(relationshipMappings));
+      }
+
+      List<FieldMapping> copyMappings() {
+         return copy(mappings);
+      }
+
+      List<FieldMapping> copyRelationshipMappings() {
+         return copy(relationshipMappings);
+      }
+
+      private static List<FieldMapping> copy(List<FieldMapping> fieldMappings) {
+         List<FieldMapping> copies = new ArrayList<>(fieldMappings.size());
+         for (FieldMapping fieldMapping : fieldMappings) {
+            copies.add(new FieldMapping(fieldMapping));
+         }
+         return copies;
+      }
+   }
+
+   private static final class Key {
+      private final String tenantId;
+      private final String configId;
+      private final String version;
+
+      private Key(String tenantId, String configId, String version) {
+         this.tenantId = String.valueOf(tenantId);
+         this.configId = String.valueOf(configId);
+         this.version = String.valueOf(version);
+      }
+
+      @Override
+      public boolean equals(Object other) {
+         if (!(other instanceof Key)) {
+            return false;
+         }
+         Key key = (Key) other;
+         return tenantId.equals(key.tenantId) && configId.equals(key.configId) && version.equals(key.version);
+      }
+
+      @Override
+      public int hashCode() {
+         return (tenantId.hashCode() * 31 + configId.hashCode()) * 31 + version.hashCode();
+      }
+   }
+}
@@ -0,0 +1,128 @@
+/*
+   FILE: MappingFailures.java
+
+   PURPOSE: Failure accounting per mapping: rate-limited error reports and disabling of mappings that keep failing.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+import com.riversand.rsconnect.interfaces.models.RdpStatusDetail;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
+
+/**
+ * Each failure of a mapping is reported as a JSON message in the status detail of the record and in the log, at most
+ * {@code reportLimit} times per mapping and minute. The first report after a suppressed period carries the number of
+ * failures left out. A mapping failing {@code disableThreshold} times is skipped from then on, so a broken mapping
+ * does not pay for an exception on every record.
+ */
+final class MappingFailures {
+   static final long REPORT_WINDOW_MILLIS = 60_000;
+
+   private final ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(MappingFailures.class);
+   private final int reportLimit;
+   private final int disableThreshold;
+   private final ConcurrentMap<CompiledMapping, Failures> failures = new ConcurrentHashMap<>();
+   private volatile boolean anyDisabled;
+
+   /**
+    * @param reportLimit      reports per mapping and minute
+    * @param disableThreshold failures after which a mapping is skipped, 0 to never skip
+    */
+   MappingFailures(int reportLimit, int disableThreshold) {
+      this.reportLimit = Math.max(0, reportLimit);
+      this.disableThreshold = Math.max(0, disableThreshold);
+   }
+
+   boolean isDisabled(CompiledMapping mapping) {
+      if (!anyDisabled) {
+         return false;
+      }
+      Failures mappingFailures = failures.get(mapping);
+      return mappingFailures != null && mappingFailures.disabled;
+   }
+
+   /**
+    * Count and report a failure of the mapping.
+    *
+    * @param contextKey source context of the mapping, null for self and relationships
+    * @param messages   status detail of the record, may be null
+    */
+   void failed(CompiledMapping mapping, String entityId, String contextKey, Exception ex, RdpStatusDetail messages) {
+      Failures mappingFailures = failures.computeIfAbsent(mapping, key -> new Failures());
+      int count = mappingFailures.count.incrementAndGet();
+      int suppressed = mappingFailures.reserveReport(reportLimit);
+      if (suppressed >= 0) {
+         JsonObject error = new JsonObject();
+         error.addProperty("entityId", entityId);
+         error.addProperty("entityType", mapping.getEntityType());
+         error.addProperty("mapping", mapping.getLabel());
+         error.addProperty("context", contextKey);
+         error.addProperty("error", ex.getClass().getName());
+         error.addProperty("message", ex.getMessage());
+         error.addProperty("failures", count);
+         if (suppressed > 0) {
+            error.addProperty("suppressed", suppressed);
+         }
+         pmLogger.error(Constants.RSCONNECT_SERVICE, RSC_7273, error.toString());
+         if (messages != null) {
+            synchronized (messages) {
+               messages.addMessage(RSC_7273, error.toString());
+            }
+         }
+      }
+      if (disableThreshold > 0 && count == disableThreshold) {
+         mappingFailures.disabled = true;
+         anyDisabled = true;
+         pmLogger.error(Constants.RSCONNECT_SERVICE, RSC_7273, String.format("Mapping %s is skipped after %d failures", mapping.getLabel(), count));
+      }
+   }
+
+   /**
+    * @return number of failures of the mapping so far
+    */
+   int getFailures(CompiledMapping mapping) {
+      Failures mappingFailures = failures.get(mapping);
+      return mappingFailures == null ? 0 : mappingFailures.count.get();
+   }
+
+   private static final class Failures {
+      private final AtomicInteger count = new AtomicInteger();
+      private volatile boolean disabled;
+      private long windowStart;
+      private int reported;
+      private int suppressed;
+
+      /**
+       * @return number of failures suppressed since the last report when this failure is reported, -1 when it is
+       * suppressed
+       */
+      private synchronized int reserveReport(int limit) {
+         long now = System.currentTimeMillis();
+         if (now - windowStart >= REPORT_WINDOW_MILLIS) {
+            windowStart = now;
+            reported = 0;
+         }
+         if (reported >= limit) {
+            suppressed++;
+            return -1;
+         }
+         reported++;
+         int skipped = suppressed;
+         suppressed = 0;
+         return skipped;
+      }
+   }
+}
@@ -0,0 +1,90 @@
+/*
+   FILE: MappingValidator.java
+
+   PURPOSE: Validate the field and relationship mappings of a transform profile when it is loaded.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.common.base.Strings;
+
+import com.riversand.rsconnect.common.config.FieldMapping;
+
+/**
+ * Every mapping is compiled on its own and checked for the problems the transformer would otherwise only hit per
+ * record: an empty source, a missing or malformed destination, a referenceTypeData destination without identifier
+ * path. All problems are collected, the report lists each of them with the position and label of the mapping.
+ */
+final class MappingValidator {
+   private static final String REFERENCE_SEPARATOR = "#@#";
+
+   private MappingValidator() {
+   }
+
+   /**
+    * @return problems found, empty when all mappings are valid
+    */
+   static List<String> validate(List<FieldMapping> fieldMap, List<FieldMapping> relationshipFieldMap) {
+      List<String> problems = new ArrayList<>();
+      if (fieldMap != null) {
+         for (int i = 0; i < fieldMap.size(); i++) {
+            FieldMapping fieldMapping = fieldMap.get(i);
+            if (fieldMapping != null && fieldMapping.isEnabled() && fieldMapping.getEntityType() != null) {
+               validate("fieldMap", i, fieldMapping, problems);
+            }
+         }
+      }
+      if (relationshipFieldMap != null) {
+         for (int i = 0; i < relationshipFieldMap.size(); i++) {
+            if (relationshipFieldMap.get(i) == null) {
+               problems.add(String.format("relationships.fieldMap[%d]: mapping cannot be null", i));
+            } else {
+               validate("relationships.fieldMap", i, relationshipFieldMap.get(i), problems);
+            }
+         }
+      }
+      return problems;
+   }
+
+   private static void validate(String fieldMapName, int index, FieldMapping fieldMapping, List<String> problems) {
+      String prefix = String.format("%s[%d] %s:%s->%s: ", fieldMapName, index, fieldMapping.getEntityType(), fieldMapping.getSource(), fieldMapping.getDestination());
+      CompiledMapping mapping;
+      try {
+         mapping = new CompiledMapping(fieldMapping, index);
+      } catch (RuntimeException ex) {
+         problems.add(prefix + "cannot be compiled: " + ex.getMessage());
+         return;
+      }
+      if (Strings.isNullOrEmpty(mapping.getSource())) {
+         problems.add(prefix + "source cannot be empty");
+      }
+      String destination = fieldMapping.getDestination();
+      if (Strings.isNullOrEmpty(destination)) {
+         problems.add(prefix + "destination cannot be null");
+         return;
+      }
+      String path = GDSNFieldMapMacro.getPath(destination);
+      if (GDSNFieldMapMacro.isPath(path)) {
+         problems.add(prefix + "malformed @path macro");
+         return;
+      }
+      if (path.isEmpty()) {
+         problems.add(prefix + "destination path is empty, values are dropped");
+         return;
+      }
+      if (mapping.isReferenceTypeData()) {
+         List<String> parts = PathStrings.split(path, REFERENCE_SEPARATOR);
+         if (parts.size() != 2 || CompiledPath.tryCompile(parts.get(0)) == null || CompiledPath.tryCompile(parts.get(1)) == null) {
+            problems.add(prefix + "referenceTypeData destination needs a code and an identifier path separated by " + REFERENCE_SEPARATOR);
+         }
+      } else if (CompiledPath.tryCompile(path) == null) {
+         problems.add(prefix + "invalid destination path: " + path);
+      }
+   }
+}
@@ -0,0 +1,97 @@
+/*
+   FILE: NestedGroup.java
+
+   PURPOSE: A nested mapping with the child mappings applied to each row of its group.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A mapping of type {@code nested} maps the rows of a nested attribute, e.g. source {@code @attr(nutrientDetails)} to
+ * destination {@code @path(nutrientHeader.nutrientDetail[%d])}. Its child mappings are the mappings of the same entity
+ * type whose destination lies below the row path, e.g. {@code @attr(nutrientTypeCode)} to
+ * {@code @path(nutrientHeader.nutrientDetail[%d].nutrientTypeCode)}. A child reads its attribute in the row and writes
+ * relative to the row object, the row index replaces the placeholder of the row path; placeholders below the row path
+ * take the value index of the child.
+ * <p>
+ * Child mappings are only applied in the rows of their group, never to the attributes of the entity itself. A child
+ * matching several groups belongs to the group with the deepest row path.
+ */
+final class NestedGroup {
+   private final CompiledMapping mapping;
+   private final CompiledPath rowPath;
+   private final List<CompiledMapping> children;
+
+   private NestedGroup(CompiledMapping mapping, CompiledPath rowPath, List<CompiledMapping> children) {
+      this.mapping = mapping;
+      this.rowPath = rowPath;
+      this.children = Collections.unmodifiableList(children);
+   }
+
+   /**
+    * @return groups of the nested mappings with a valid destination, in mapping order
+    */
+   static List<NestedGroup> collect(List<CompiledMapping> mappings) {
+      List<CompiledMapping> nestedMappings = new ArrayList<>();
+      for (CompiledMapping mapping : mappings) {
+         if (mapping.isNested() && mapping.getDestinationTemplate() != null && CompiledPath.tryCompile(mapping.getDestinationTemplate()) != null) {
+            nestedMappings.add(mapping);
+         }
+      }
+      if (nestedMappings.isEmpty()) {
+         return Collections.emptyList();
+      }
+      List<List<CompiledMapping>> children = new ArrayList<>();
+      nestedMappings.forEach(nestedMapping -> children.add(new ArrayList<>()));
+      for (CompiledMapping mapping : mappings) {
+         if (mapping.isNested() || mapping.getDestinationTemplate() == null) {
+            continue;
+         }
+         int group = -1;
+         for (int i = 0; i < nestedMappings.size(); i++) {
+            String rowTemplate = nestedMappings.get(i).getDestinationTemplate();
+            if (mapping.getDestinationTemplate().startsWith(rowTemplate + ".") && (group == -1 || rowTemplate.length() > nestedMappings.get(group).getDestinationTemplate().length())) {
+               group = i;
+            }
+         }
+         if (group != -1) {
+            children.get(group).add(mapping);
+         }
+      }
+      List<NestedGroup> groups = new ArrayList<>();
+      for (int i = 0; i < nestedMappings.size(); i++) {
+         CompiledPath rowPath = CompiledPath.compile(nestedMappings.get(i).getDestinationTemplate());
+         List<CompiledMapping> relativeChildren = new ArrayList<>();
+         for (CompiledMapping child : children.get(i)) {
+            relativeChildren.add(child.relativeTo(rowPath));
+         }
+         groups.add(new NestedGroup(nestedMappings.get(i), rowPath, relativeChildren));
+      }
+      return groups;
+   }
+
+   CompiledMapping getMapping() {
+      return mapping;
+   }
+
+   /**
+    * Destination of a row, the row index replaces its placeholder.
+    */
+   CompiledPath getRowPath() {
+      return rowPath;
+   }
+
+   /**
+    * @return child mappings, with destinations relative to the row
+    */
+   List<CompiledMapping> getChildren() {
+      return children;
+   }
+}
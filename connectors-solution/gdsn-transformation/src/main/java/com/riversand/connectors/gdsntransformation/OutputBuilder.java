@@ -0,0 +1,98 @@
+/*
+   FILE: OutputBuilder.java
+
+   PURPOSE: Builds the output tree of a record, remembering the parent objects it created.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+/**
+ * Each parent path resolved for the record is remembered with its object, per index for paths with an index
+ * placeholder. Fields under a known parent, such as the language code and the value of a localizable field or the
+ * attributes of one GDSN class, are set without walking the tree from the root; a new parent path only walks from its
+ * deepest known ancestor.
+ * <p>
+ * A builder is reset for each record and reused for the next one, it belongs to one thread. When a value replaces an
+ * object or array of the tree, the remembered objects may be detached and are forgotten.
+ */
+final class OutputBuilder {
+   private static final JsonObject[] NO_NODES = new JsonObject[0];
+
+   private final Map<CompiledPath, JsonObject[]> nodes = new HashMap<>();
+   private JsonObject root;
+   private OutputBuilder rowBuilder;
+
+   /**
+    * Start building the given output record.
+    */
+   OutputBuilder reset(JsonObject root) {
+      this.root = root;
+      nodes.clear();
+      return this;
+   }
+
+   /**
+    * Drop the record being built, so the builder does not retain it.
+    */
+   void release() {
+      reset(null);
+      if (rowBuilder != null) {
+         rowBuilder.release();
+      }
+   }
+
+   JsonObject getRoot() {
+      return root;
+   }
+
+   /**
+    * @return builder of the rows of a nested group, reset to each row object by the caller
+    */
+   OutputBuilder rowBuilder() {
+      if (rowBuilder == null) {
+         rowBuilder = new OutputBuilder();
+      }
+      return rowBuilder;
+   }
+
+   /**
+    * Set the value at the path, see {@link CompiledPath#set(JsonObject, int, JsonElement)}.
+    */
+   void set(CompiledPath path, int index, JsonElement value) {
+      CompiledPath parentPath = path.parent();
+      JsonObject parent = parentPath == null ? root : getOrCreateObject(parentPath, index);
+      JsonElement previous = path.setLast(parent, index, value);
+      if (previous != null && (previous.isJsonObject() || previous.isJsonArray())) {
+         nodes.clear();
+      }
+   }
+
+   /**
+    * @return object at the path, created when missing
+    */
+   JsonObject getOrCreateObject(CompiledPath path, int index) {
+      int slot = path.hasPlaceholder() ? index : 0;
+      JsonObject[] objects = nodes.getOrDefault(path, NO_NODES);
+      if (slot < objects.length && objects[slot] != null) {
+         return objects[slot];
+      }
+      CompiledPath parentPath = path.parent();
+      JsonObject object = path.getOrCreateLast(parentPath == null ? root : getOrCreateObject(parentPath, index), index);
+      if (slot >= objects.length) {
+         objects = Arrays.copyOf(objects, Math.max(slot + 1, objects.length * 2));
+         nodes.put(path, objects);
+      }
+      objects[slot] = object;
+      return object;
+   }
+}
@@ -0,0 +1,74 @@
+/*
+   FILE: PathStrings.java
+
+   PURPOSE: Regex-free trimming and splitting of paths and separated values.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Replacements for {@code String.replaceAll(Pattern.quote(..))} and {@code String.split(Pattern.quote(..))} which
+ * match the separator literally and do not compile a pattern per call.
+ */
+final class PathStrings {
+
+   private PathStrings() {
+   }
+
+   /**
+    * Remove every occurrence of the token. Returns the value itself when the token does not occur.
+    */
+   static String removeAll(String value, String token) {
+      if (value == null || token == null || token.isEmpty()) {
+         return value;
+      }
+      int match = value.indexOf(token);
+      if (match == -1) {
+         return value;
+      }
+      StringBuilder builder = new StringBuilder(value.length());
+      int start = 0;
+      while (match != -1) {
+         builder.append(value, start, match);
+         start = match + token.length();
+         match = value.indexOf(token, start);
+      }
+      return builder.append(value, start, value.length()).toString();
+   }
+
+   /**
+    * Split the value on the literal separator. Like {@link String#split(String)}, trailing empty parts are dropped.
+    */
+   static List<String> split(String value, String separator) {
+      if (value == null) {
+         return Collections.emptyList();
+      }
+      if (separator == null || separator.isEmpty()) {
+         return Collections.singletonList(value);
+      }
+      int match = value.indexOf(separator);
+      if (match == -1) {
+         return Collections.singletonList(value);
+      }
+      List<String> parts = new ArrayList<>();
+      int start = 0;
+      while (match != -1) {
+         parts.add(value.substring(start, match));
+         start = match + separator.length();
+         match = value.indexOf(separator, start);
+      }
+      parts.add(value.substring(start));
+      int size = parts.size();
+      while (size > 0 && parts.get(size - 1).isEmpty()) {
+         parts.remove(--size);
+      }
+      return parts;
+   }
+}
@@ -0,0 +1,78 @@
+/*
+   FILE: RecordMappingState.java
+
+   PURPOSE: Tracks which mappings of an entity plan are already fulfilled while a single record is transformed.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A mapping which ran in a context releases the matching context key. Once all of its context keys are released, or
+ * when it has none, the mapping is fulfilled and is no longer applied in the self context.
+ * The state belongs to one record, the plan itself is never changed.
+ */
+final class RecordMappingState {
+   private final boolean[] fulfilled;
+   private final Set<String>[] releasedKeys;
+   private final boolean sampled;
+   private int remaining;
+
+   /**
+    * @param sampled whether the mappings of this record are timed
+    */
+   @SuppressWarnings({"unchecked", "rawtypes"})
+   RecordMappingState(EntityPlan entityPlan, boolean sampled) {
+      this.sampled = sampled;
+      int size = entityPlan.getMappings().size();
+      this.fulfilled = new boolean[size];
+      this.releasedKeys = new Set[size];
+      this.remaining = size;
+      // children of nested groups are applied in the rows of their group only
+      for (CompiledMapping mapping : entityPlan.getMappings()) {
+         if (entityPlan.isNestedChild(mapping)) {
+            fulfilled[mapping.getOrdinal()] = true;
+            remaining--;
+         }
+      }
+   }
+
+   boolean isSampled() {
+      return sampled;
+   }
+
+   boolean isFulfilled(CompiledMapping mapping) {
+      return fulfilled[mapping.getOrdinal()];
+   }
+
+   boolean hasRemaining() {
+      return remaining > 0;
+   }
+
+   void release(CompiledMapping mapping, String contextKey) {
+      int ordinal = mapping.getOrdinal();
+      if (fulfilled[ordinal]) {
+         return;
+      }
+      Set<String> contextKeys = mapping.getContextKeys();
+      if (contextKeys != null && !contextKeys.isEmpty()) {
+         if (!contextKeys.contains(contextKey)) {
+            return;
+         }
+         if (releasedKeys[ordinal] == null) {
+            releasedKeys[ordinal] = new HashSet<>();
+         }
+         releasedKeys[ordinal].add(contextKey);
+         if (releasedKeys[ordinal].size() < contextKeys.size()) {
+            return;
+         }
+      }
+      fulfilled[ordinal] = true;
+      remaining--;
+   }
+}
@@ -0,0 +1,56 @@
+/*
+   FILE: RelationshipPlan.java
+
+   PURPOSE: Relationship mappings grouped by the entity type of the parent record.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Relationship elements of a record only need the mappings of the record's entity type, the lookup is done once per
+ * record instead of once per element and mapping.
+ */
+final class RelationshipPlan {
+   private final List<CompiledMapping> mappings;
+   private final Map<String, List<CompiledMapping>> mappingsByType;
+
+   RelationshipPlan(List<CompiledMapping> mappings) {
+      this.mappings = Collections.unmodifiableList(mappings);
+      Map<String, List<CompiledMapping>> byType = new HashMap<>();
+      for (CompiledMapping mapping : mappings) {
+         if (mapping.getEntityType() != null) {
+            byType.computeIfAbsent(mapping.getEntityType(), key -> new ArrayList<>()).add(mapping);
+         }
+      }
+      byType.replaceAll((entityType, typeMappings) -> Collections.unmodifiableList(typeMappings));
+      this.mappingsByType = byType;
+   }
+
+   /**
+    * All relationship mappings, in profile order.
+    */
+   List<CompiledMapping> getMappings() {
+      return mappings;
+   }
+
+   boolean isEmpty() {
+      return mappings.isEmpty();
+   }
+
+   /**
+    * @return mappings of the parent entity type in profile order, empty when there are none
+    */
+   List<CompiledMapping> getMappings(String entityType) {
+      List<CompiledMapping> typeMappings = mappingsByType.get(entityType);
+      return typeMappings == null ? Collections.emptyList() : typeMappings;
+   }
+}
@@ -0,0 +1,324 @@
+/*
+   FILE: SerializedRecordStore.java
+
+   PURPOSE: Append-only store of JSON records serialized off-heap, spilling to a memory-mapped file past a memory budget.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.internal.Streams;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonWriter;
+
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Records are kept as length prefixed UTF-8 JSON. They are appended to direct buffers, outside the heap, until the
+ * memory budget is used; later records go to a spill file in the spill directory, read back through memory-mapped
+ * windows. Records are read in the order they were added. Not thread safe.
+ * <p>
+ * {@link #close()} frees the direct buffers and the mapped windows at once instead of leaving them to the garbage
+ * collector, see {@link DirectBuffers}. The store and its iterators cannot be used afterwards.
+ */
+final class SerializedRecordStore implements Closeable {
+   private static final int MAX_SEGMENT_SIZE = 4 * 1024 * 1024;
+   private static final int MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+   private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+   private final Path directory;
+   private final long memoryBudget;
+   private final int segmentSize;
+   private final List<ByteBuffer> segments = new ArrayList<>();
+   private final List<MappedByteBuffer> windows = new ArrayList<>();
+   private final RecordBytes recordBytes = new RecordBytes();
+   private long allocated;
+   private int memoryRecords;
+   private Path spillFile;
+   private FileChannel spillChannel;
+   private ByteBuffer writeBuffer;
+   private long spillSize;
+   private int spilledRecords;
+   private boolean closed;
+
+   /**
+    * @param directory    directory of the spill file, created on the first spilled record
+    * @param memoryBudget bytes of off-heap memory used before records are spilled
+    */
+   SerializedRecordStore(Path directory, long memoryBudget) {
+      this.directory = directory;
+      this.memoryBudget = Math.max(0, memoryBudget);
+      this.segmentSize = (int) Math.min(MAX_SEGMENT_SIZE, Math.max(1, this.memoryBudget));
+   }
+
+   void add(JsonObject record) {
+      checkOpen();
+      recordBytes.reset();
+      try {
+         JsonWriter writer = new JsonWriter(new OutputStreamWriter(recordBytes, StandardCharsets.UTF_8));
+         Streams.write(record, writer);
+         writer.flush();
+         if (spillChannel == null && addToMemory()) {
+            memoryRecords++;
+         } else {
+            spill();
+            spilledRecords++;
+         }
+      } catch (IOException ex) {
+         throw new ConnectRuntimeException(RSC_7820, "Failed to buffer record: " + ex.getMessage());
+      }
+   }
+
+   int size() {
+      return memoryRecords + spilledRecords;
+   }
+
+   /**
+    * @return bytes of the spill file, 0 while every record fits in memory
+    */
+   long getSpilledBytes() {
+      return spillSize;
+   }
+
+   private boolean addToMemory() {
+      int needed = Integer.BYTES + recordBytes.size();
+      ByteBuffer segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+      if (segment == null || segment.remaining() < needed) {
+         if (needed > segmentSize || allocated + segmentSize > memoryBudget) {
+            return false;
+         }
+         segment = ByteBuffer.allocateDirect(segmentSize);
+         segments.add(segment);
+         allocated += segmentSize;
+      }
+      segment.putInt(recordBytes.size());
+      segment.put(recordBytes.buffer(), 0, recordBytes.size());
+      return true;
+   }
+
+   private void spill() throws IOException {
+      if (spillChannel == null) {
+         Files.createDirectories(directory);
+         spillFile = Files.createTempFile(directory, "gdsn-spill-", ".bin");
+         spillChannel = FileChannel.open(spillFile, StandardOpenOption.READ, StandardOpenOption.WRITE);
+         writeBuffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE);
+      }
+      writeBuffer.putInt(recordBytes.size());
+      int offset = 0;
+      while (offset < recordBytes.size()) {
+         if (!writeBuffer.hasRemaining()) {
+            flushWriteBuffer();
+         }
+         int length = Math.min(writeBuffer.remaining(), recordBytes.size() - offset);
+         writeBuffer.put(recordBytes.buffer(), offset, length);
+         offset += length;
+      }
+      if (writeBuffer.remaining() < Integer.BYTES) {
+         flushWriteBuffer();
+      }
+      spillSize += Integer.BYTES + recordBytes.size();
+   }
+
+   private void flushWriteBuffer() throws IOException {
+      writeBuffer.flip();
+      while (writeBuffer.hasRemaining()) {
+         spillChannel.write(writeBuffer);
+      }
+      writeBuffer.clear();
+   }
+
+   /**
+    * Iterate the records in the order they were added. Records added while iterating are not returned.
+    */
+   Iterator<JsonObject> iterator() {
+      checkOpen();
+      try {
+         if (spillChannel != null) {
+            flushWriteBuffer();
+         }
+      } catch (IOException ex) {
+         throw new ConnectRuntimeException(RSC_7820, "Failed to write spill file: " + ex.getMessage());
+      }
+      return new RecordIterator(memoryRecords, spilledRecords);
+   }
+
+   /**
+    * Free the off-heap memory, unmap the spill file and delete it.
+    */
+   @Override
+   public void close() throws IOException {
+      if (closed) {
+         return;
+      }
+      closed = true;
+      segments.forEach(DirectBuffers::free);
+      segments.clear();
+      windows.forEach(DirectBuffers::free);
+      windows.clear();
+      DirectBuffers.free(writeBuffer);
+      writeBuffer = null;
+      allocated = 0;
+      memoryRecords = 0;
+      spilledRecords = 0;
+      spillSize = 0;
+      if (spillChannel != null) {
+         try {
+            spillChannel.close();
+         } finally {
+            spillChannel = null;
+            Files.deleteIfExists(spillFile);
+         }
+      }
+   }
+
+   private void checkOpen() {
+      if (closed) {
+         throw new IllegalStateException("The record store is closed");
+      }
+   }
+
+   private static JsonObject parse(ByteBuffer record) {
+      JsonReader reader = new JsonReader(new InputStreamReader(new ByteBufferInputStream(record), StandardCharsets.UTF_8));
+      return new JsonParser().parse(reader).getAsJsonObject();
+   }
+
+   private final class RecordIterator implements Iterator<JsonObject> {
+      private final int memoryCount;
+      private final int spilledCount;
+      private int memoryIndex;
+      private int segmentIndex;
+      private int segmentPosition;
+      private int spilledIndex;
+      private long spillPosition;
+      private MappedByteBuffer window;
+      private long windowStart;
+
+      private RecordIterator(int memoryCount, int spilledCount) {
+         this.memoryCount = memoryCount;
+         this.spilledCount = spilledCount;
+      }
+
+      @Override
+      public boolean hasNext() {
+         checkOpen();
+         return memoryIndex < memoryCount || spilledIndex < spilledCount;
+      }
+
+      @Override
+      public JsonObject next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         return memoryIndex < memoryCount ? nextInMemory() : nextSpilled();
+      }
+
+      private JsonObject nextInMemory() {
+         ByteBuffer segment = segments.get(segmentIndex).duplicate();
+         segment.flip();
+         if (segmentPosition >= segment.limit()) {
+            segmentIndex++;
+            segmentPosition = 0;
+            segment = segments.get(segmentIndex).duplicate();
+            segment.flip();
+         }
+         segment.position(segmentPosition);
+         int length = segment.getInt();
+         segment.limit(segment.position() + length);
+         segmentPosition = segment.limit();
+         memoryIndex++;
+         return parse(segment);
+      }
+
+      private JsonObject nextSpilled() {
+         try {
+            int length = mapWindow(spillPosition, Integer.BYTES).getInt((int) (spillPosition - windowStart));
+            ByteBuffer record = mapWindow(spillPosition + Integer.BYTES, length).duplicate();
+            record.position((int) (spillPosition + Integer.BYTES - windowStart));
+            record.limit(record.position() + length);
+            spillPosition += Integer.BYTES + length;
+            spilledIndex++;
+            return parse(record);
+         } catch (IOException ex) {
+            throw new ConnectRuntimeException(RSC_7820, "Failed to read spill file: " + ex.getMessage());
+         }
+      }
+
+      /**
+       * @return mapped window holding the given range of the spill file. The previous window is unmapped, no record
+       * read from it is still being parsed.
+       */
+      private MappedByteBuffer mapWindow(long position, int length) throws IOException {
+         if (window == null || position < windowStart || position + length > windowStart + window.capacity()) {
+            long size = Math.min(spillSize - position, Math.max(MAP_WINDOW_SIZE, length));
+            if (window != null) {
+               windows.remove(window);
+               DirectBuffers.free(window);
+            }
+            window = spillChannel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            windows.add(window);
+            windowStart = position;
+         }
+         return window;
+      }
+   }
+
+   /**
+    * Reusable serialization buffer, exposes its array to copy the record without another allocation.
+    */
+   private static final class RecordBytes extends ByteArrayOutputStream {
+      private RecordBytes() {
+         super(8192);
+      }
+
+      private byte[] buffer() {
+         return buf;
+      }
+   }
+
+   private static final class ByteBufferInputStream extends InputStream {
+      private final ByteBuffer buffer;
+
+      private ByteBufferInputStream(ByteBuffer buffer) {
+         this.buffer = buffer;
+      }
+
+      @Override
+      public int read() {
+         return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] bytes, int offset, int length) {
+         if (!buffer.hasRemaining()) {
+            return -1;
+         }
+         int count = Math.min(length, buffer.remaining());
+         buffer.get(bytes, offset, count);
+         return count;
+      }
+   }
+}
@@ -0,0 +1,119 @@
+/*
+   FILE: SourceAccessor.java
+
+   PURPOSE: Resolves the values array of a mapped source attribute in one context of the inbound record.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+/**
+ * The source path is built by {@code TransformerHelper.getSourceFieldInContext} for the first value, e.g.
+ * {@code data.attributes.gtin.values[0].value}, and is trimmed to the values array once. Paths which use a syntax only
+ * {@link JsonRecord} understands are still resolved through it.
+ * <p>
+ * When the path ends with {@code <attribute>.values}, the object above it is the attribute container of the context,
+ * e.g. {@code data.attributes}. All attributes of a context share the container, so it is resolved once per record and
+ * context and the values are read from it with a single lookup.
+ */
+final class SourceAccessor {
+   private static final String VALUES = "values";
+   private static final String GROUP = "group";
+
+   private final String valuesPath;
+   private final CompiledPath compiledValuesPath;
+   private final String attribute;
+   private final CompiledPath containerPath;
+
+   /**
+    * @param attribute name of the source attribute, or null when the source is not an attribute
+    */
+   SourceAccessor(String sourcePath, String attribute) {
+      this.valuesPath = PathStrings.removeAll(PathStrings.removeAll(sourcePath, "[0].value"), "[0].src");
+      this.compiledValuesPath = CompiledPath.tryCompile(valuesPath);
+      this.attribute = attribute;
+      this.containerPath = compiledValuesPath == null || attribute == null ? null : compiledValuesPath.trimTrailing(attribute, VALUES);
+   }
+
+   /**
+    * @return path of the attribute container, or null when the values are not read through a container
+    */
+   CompiledPath getContainerPath() {
+      return containerPath;
+   }
+
+   /**
+    * @param container attribute container resolved through {@link #getContainerPath()}, null when missing
+    * @return values array of the attribute, or null when the attribute is not present
+    */
+   JsonArray findValuesIn(JsonObject container) {
+      if (container == null) {
+         return null;
+      }
+      JsonElement attributeObject = container.get(attribute);
+      if (attributeObject == null || !attributeObject.isJsonObject()) {
+         return null;
+      }
+      JsonElement values = attributeObject.getAsJsonObject().get(VALUES);
+      return values != null && values.isJsonArray() ? values.getAsJsonArray() : null;
+   }
+
+   /**
+    * @param container attribute container resolved through {@link #getContainerPath()}, null when missing
+    * @return group array of a nested attribute, or null when the attribute is not present
+    */
+   JsonArray findGroupIn(JsonObject container) {
+      if (container == null) {
+         return null;
+      }
+      JsonElement attributeObject = container.get(attribute);
+      if (attributeObject == null || !attributeObject.isJsonObject()) {
+         return null;
+      }
+      JsonElement group = attributeObject.getAsJsonObject().get(GROUP);
+      return group != null && group.isJsonArray() ? group.getAsJsonArray() : null;
+   }
+
+   /**
+    * @return group array of a nested attribute, or null when the attribute is not present or the source is not an
+    * attribute
+    */
+   JsonArray findGroup(JsonObject record) {
+      return containerPath == null ? null : findGroupIn(containerPath.findObject(record));
+   }
+
+   /**
+    * @return values array of the attribute in a row of a nested group, or null when not present
+    */
+   static JsonArray findValuesInRow(JsonObject row, String attribute) {
+      JsonElement attributeObject = row.get(attribute);
+      if (attributeObject == null || !attributeObject.isJsonObject()) {
+         return null;
+      }
+      JsonElement values = attributeObject.getAsJsonObject().get(VALUES);
+      return values != null && values.isJsonArray() ? values.getAsJsonArray() : null;
+   }
+
+   /**
+    * @return values array of the attribute, or null when the attribute is not present
+    */
+   JsonArray findValues(JsonObject record) {
+      if (compiledValuesPath != null) {
+         return compiledValuesPath.findArray(record);
+      }
+      return JsonRecord.findArray(record, valuesPath);
+   }
+
+   @Override
+   public String toString() {
+      return valuesPath;
+   }
+}
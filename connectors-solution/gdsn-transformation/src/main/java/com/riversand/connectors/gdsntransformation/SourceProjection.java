@@ -0,0 +1,260 @@
+/*
+   FILE: SourceProjection.java
+
+   PURPOSE: The parts of an RSJSON entity the mappings of a transform profile read, and the filter dropping the rest.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+/**
+ * Derived from the compiled field and relationship mappings, as generated by {@link FieldMapGenerator}. A collector can
+ * request only the attributes, contexts and relationships listed here; entities that arrive complete are pruned with
+ * {@link #read(JsonReader)} before they are parsed, or with {@link #project(JsonObject)} before they are held.
+ * <p>
+ * The identifying properties of the entity, its contexts and its relationships are always kept: the transformer needs
+ * the contexts of a record to decide whether the self mappings apply, and every relationship type is written to the
+ * output once the profile has relationship mappings. Attribute sets are null when a mapping reads a source which is
+ * not an attribute, every attribute is kept then.
+ */
+public final class SourceProjection {
+   static final String CONTEXTS = "contexts";
+   static final String REL_TO = "relTo";
+
+   private final Map<String, Set<String>> attributesByType;
+   private final Set<String> attributes;
+   private final Set<String> contextKeys;
+   private final boolean relationships;
+   private final Set<String> relationshipAttributes;
+   private final StreamingSourceReader reader;
+
+   SourceProjection(TransformPlan plan, RelationshipPlan relationshipPlan) {
+      Map<String, Set<String>> byType = new LinkedHashMap<>();
+      Set<String> keys = new LinkedHashSet<>();
+      for (EntityPlan entityPlan : plan.getEntityPlans().values()) {
+         byType.put(entityPlan.getEntityType(), entityPlan.getSourceAttributes());
+         for (CompiledMapping mapping : entityPlan.getMappings()) {
+            if (mapping.getContextKeys() != null) {
+               mapping.getContextKeys().stream().filter(key -> !Constants.Mapping.ATTRIBUTES_SELF.equalsIgnoreCase(key)).forEach(keys::add);
+            }
+         }
+      }
+      this.attributesByType = Collections.unmodifiableMap(byType);
+      this.attributes = plan.getSourceAttributes();
+      this.contextKeys = Collections.unmodifiableSet(keys);
+      this.relationships = !relationshipPlan.isEmpty();
+      this.relationshipAttributes = relationships ? collectRelationshipAttributes(relationshipPlan) : Collections.emptySet();
+      this.reader = new StreamingSourceReader(this);
+   }
+
+   private static Set<String> collectRelationshipAttributes(RelationshipPlan relationshipPlan) {
+      Set<String> names = new LinkedHashSet<>();
+      for (CompiledMapping mapping : relationshipPlan.getMappings()) {
+         if (mapping.getRelationshipAttribute() == null) {
+            return null;
+         }
+         names.add(mapping.getRelationshipAttribute());
+      }
+      return Collections.unmodifiableSet(names);
+   }
+
+   /**
+    * @return entity types with mappings, entities of other types are transformed to empty records
+    */
+   public Set<String> getEntityTypes() {
+      return attributesByType.keySet();
+   }
+
+   /**
+    * @return attributes read for the entity type, empty for types without mappings, or null when every attribute is
+    * read
+    */
+   public Set<String> getAttributes(String entityType) {
+      return attributesByType.containsKey(entityType) ? attributesByType.get(entityType) : Collections.emptySet();
+   }
+
+   /**
+    * @return attributes read for any entity type, or null when every attribute is read
+    */
+   public Set<String> getAttributes() {
+      return attributes;
+   }
+
+   /**
+    * @return context keys the mappings read values from; attributes of other contexts are never read
+    */
+   public Set<String> getContextKeys() {
+      return contextKeys;
+   }
+
+   /**
+    * @return true when relationships are transformed, every relationship type is read then
+    */
+   public boolean readsRelationships() {
+      return relationships;
+   }
+
+   /**
+    * @return attributes of the relationship elements the relationship mappings read, empty when relationships are not
+    * read, or null when every attribute is read. The attributes of the related entity are always kept.
+    */
+   public Set<String> getRelationshipAttributes() {
+      return relationshipAttributes;
+   }
+
+   /**
+    * Read the next entity from the reader, skipping everything the mappings do not read without building a tree.
+    */
+   public JsonObject read(JsonReader jsonReader) throws IOException {
+      return reader.read(jsonReader);
+   }
+
+   /**
+    * @return the entity without the parts the mappings do not read. Kept values are shared with the entity, which is not
+    * changed.
+    */
+   public JsonObject project(JsonObject entity) {
+      JsonElement typeElement = entity.get(Constants.TYPE);
+      Set<String> entityAttributes = typeElement != null && typeElement.isJsonPrimitive() ? getAttributes(typeElement.getAsString()) : attributes;
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : entity.entrySet()) {
+         if (Constants.DATA.equals(entry.getKey()) && entry.getValue().isJsonObject()) {
+            projected.add(entry.getKey(), projectData(entry.getValue().getAsJsonObject(), entityAttributes));
+         } else {
+            projected.add(entry.getKey(), entry.getValue());
+         }
+      }
+      return projected;
+   }
+
+   private JsonObject projectData(JsonObject data, Set<String> entityAttributes) {
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : data.entrySet()) {
+         String name = entry.getKey();
+         JsonElement value = entry.getValue();
+         if (Constants.ATTRIBUTES.equals(name)) {
+            projected.add(name, projectAttributes(value, entityAttributes));
+         } else if (CONTEXTS.equals(name) && value.isJsonArray()) {
+            projected.add(name, projectContexts(value.getAsJsonArray(), entityAttributes));
+         } else if (Constants.OPERATION_SEARCH_RELATIONSHIPS.equals(name)) {
+            if (relationships) {
+               projected.add(name, projectRelationships(value));
+            }
+         } else {
+            projected.add(name, value);
+         }
+      }
+      return projected;
+   }
+
+   private JsonArray projectContexts(JsonArray contexts, Set<String> entityAttributes) {
+      JsonArray projected = new JsonArray();
+      for (JsonElement context : contexts) {
+         if (!context.isJsonObject()) {
+            continue;
+         }
+         JsonObject projectedContext = new JsonObject();
+         for (Map.Entry<String, JsonElement> entry : context.getAsJsonObject().entrySet()) {
+            if (Constants.ATTRIBUTES.equals(entry.getKey())) {
+               projectedContext.add(entry.getKey(), projectAttributes(entry.getValue(), entityAttributes));
+            } else if (!Constants.OPERATION_SEARCH_RELATIONSHIPS.equals(entry.getKey())) {
+               projectedContext.add(entry.getKey(), entry.getValue());
+            }
+         }
+         projected.add(projectedContext);
+      }
+      return projected;
+   }
+
+   private JsonElement projectRelationships(JsonElement relationshipsElement) {
+      if (!relationshipsElement.isJsonObject()) {
+         return relationshipsElement;
+      }
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : relationshipsElement.getAsJsonObject().entrySet()) {
+         if (!entry.getValue().isJsonArray()) {
+            continue;
+         }
+         JsonArray elements = new JsonArray();
+         for (JsonElement element : entry.getValue().getAsJsonArray()) {
+            if (element.isJsonObject()) {
+               elements.add(projectRelationship(element.getAsJsonObject()));
+            }
+         }
+         projected.add(entry.getKey(), elements);
+      }
+      return projected;
+   }
+
+   /**
+    * A relationship element keeps its mapped attributes, its scalar properties and the attributes of the related entity.
+    */
+   private JsonObject projectRelationship(JsonObject relationship) {
+      if (relationshipAttributes == null) {
+         return relationship;
+      }
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : relationship.entrySet()) {
+         String name = entry.getKey();
+         JsonElement value = entry.getValue();
+         if (Constants.ATTRIBUTES.equals(name)) {
+            projected.add(name, projectAttributes(value, relationshipAttributes));
+         } else if (REL_TO.equals(name) && value.isJsonObject()) {
+            projected.add(name, projectRelTo(value.getAsJsonObject()));
+         } else if (!value.isJsonObject() && !value.isJsonArray()) {
+            projected.add(name, value);
+         }
+      }
+      return projected;
+   }
+
+   private static JsonObject projectRelTo(JsonObject relTo) {
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : relTo.entrySet()) {
+         JsonElement value = entry.getValue();
+         if (Constants.DATA.equals(entry.getKey()) && value.isJsonObject()) {
+            JsonObject data = new JsonObject();
+            JsonElement relatedAttributes = value.getAsJsonObject().get(Constants.ATTRIBUTES);
+            if (relatedAttributes != null) {
+               data.add(Constants.ATTRIBUTES, relatedAttributes);
+            }
+            projected.add(entry.getKey(), data);
+         } else if (!value.isJsonObject() && !value.isJsonArray()) {
+            projected.add(entry.getKey(), value);
+         }
+      }
+      return projected;
+   }
+
+   /**
+    * @param kept names of the attributes to keep, null to keep all
+    */
+   private static JsonElement projectAttributes(JsonElement attributesElement, Set<String> kept) {
+      if (kept == null || !attributesElement.isJsonObject()) {
+         return attributesElement;
+      }
+      JsonObject projected = new JsonObject();
+      for (Map.Entry<String, JsonElement> entry : attributesElement.getAsJsonObject().entrySet()) {
+         if (kept.contains(entry.getKey())) {
+            projected.add(entry.getKey(), entry.getValue());
+         }
+      }
+      return projected;
+   }
+}
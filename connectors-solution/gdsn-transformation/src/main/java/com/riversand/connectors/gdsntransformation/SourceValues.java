@@ -0,0 +1,143 @@
+/*
+   FILE: SourceValues.java
+
+   PURPOSE: Values of a mapped source attribute, read from its values array in a single pass.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+/**
+ * Collection and localizable fields take every value up to the first empty one, other fields only the first value.
+ * Locales, units of measure and reference data identifiers are taken in the same pass, only for the mappings which
+ * need them. Values are kept as the source elements, converted only when written.
+ */
+final class SourceValues {
+   static final SourceValues EMPTY = new SourceValues(0, new JsonElement[0], null, null, null);
+
+   private static final CompiledPath VALUE_PATH = CompiledPath.compile(Constants.Mappings.VALUE);
+   private static final CompiledPath LOCALE_PATH = CompiledPath.compile("locale");
+   private static final CompiledPath UOM_PATH = CompiledPath.compile("uom");
+   private static final CompiledPath REFERENCE_DATA_IDENTIFIER_PATH = CompiledPath.compile("properties.referenceDataIdentifier");
+
+   private final int size;
+   private final JsonElement[] values;
+   private final String[] locales;
+   private final String[] uoms;
+   private final String[] referenceIdentifiers;
+
+   private SourceValues(int size, JsonElement[] values, String[] locales, String[] uoms, String[] referenceIdentifiers) {
+      this.size = size;
+      this.values = values;
+      this.locales = locales;
+      this.uoms = uoms;
+      this.referenceIdentifiers = referenceIdentifiers;
+   }
+
+   /**
+    * @param valuesArray     values array of the attribute in the source context
+    * @param propertiesArray values array the locales and reference data identifiers are read from. This is the
+    *                        values array of the destination context, usually the same array.
+    */
+   static SourceValues read(CompiledMapping mapping, JsonArray valuesArray, JsonArray propertiesArray) {
+      if (valuesArray == null || valuesArray.size() == 0) {
+         return EMPTY;
+      }
+      int capacity = mapping.isMultiValued() ? valuesArray.size() : 1;
+      JsonElement[] values = new JsonElement[capacity];
+      String[] uoms = mapping.hasUOM() ? new String[capacity] : null;
+      boolean sameArray = propertiesArray == valuesArray;
+      String[] locales = mapping.isLocalizable() ? new String[capacity] : null;
+      String[] referenceIdentifiers = mapping.isReferenceTypeData() ? new String[capacity] : null;
+
+      int size = 0;
+      while (size < capacity) {
+         JsonElement element = valuesArray.get(size);
+         JsonElement value = VALUE_PATH.find(element);
+         // When empty, we have reached the end of the values.
+         if (isEmpty(value)) {
+            break;
+         }
+         values[size] = value;
+         if (uoms != null) {
+            uoms[size] = UOM_PATH.findString(element);
+         }
+         if (sameArray) {
+            readProperties(element, size, locales, referenceIdentifiers);
+         }
+         size++;
+      }
+      if (!sameArray && propertiesArray != null) {
+         for (int i = 0; i < size && i < propertiesArray.size(); i++) {
+            readProperties(propertiesArray.get(i), i, locales, referenceIdentifiers);
+         }
+      }
+      return size == 0 ? EMPTY : new SourceValues(size, values, locales, uoms, referenceIdentifiers);
+   }
+
+   /**
+    * Single value without locale, unit of measure or reference data identifier.
+    */
+   static SourceValues of(String value) {
+      return new SourceValues(1, new JsonElement[]{new JsonPrimitive(value)}, null, null, null);
+   }
+
+   private static boolean isEmpty(JsonElement value) {
+      if (value == null || value.isJsonNull()) {
+         return true;
+      }
+      return value.isJsonPrimitive() && value.getAsString().isEmpty();
+   }
+
+   private static void readProperties(JsonElement element, int index, String[] locales, String[] referenceIdentifiers) {
+      if (locales != null) {
+         locales[index] = LOCALE_PATH.findString(element);
+      }
+      if (referenceIdentifiers != null) {
+         referenceIdentifiers[index] = REFERENCE_DATA_IDENTIFIER_PATH.findString(element);
+      }
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   int size() {
+      return size;
+   }
+
+   /**
+    * @return value as string, objects and arrays as JSON text
+    */
+   String getValue(int index) {
+      JsonElement value = values[index];
+      return value.isJsonPrimitive() ? value.getAsString() : value.toString();
+   }
+
+   /**
+    * @return value as read from the source, never null or JSON null
+    */
+   JsonElement getElement(int index) {
+      return values[index];
+   }
+
+   String getLocale(int index) {
+      return locales == null ? null : locales[index];
+   }
+
+   String getUom(int index) {
+      return uoms == null ? null : uoms[index];
+   }
+
+   String getReferenceIdentifier(int index) {
+      return referenceIdentifiers == null ? null : referenceIdentifiers[index];
+   }
+}
@@ -0,0 +1,150 @@
+/*
+   FILE: SpillingBatchBuffer.java
+
+   PURPOSE: Batch stage around the GDSN transformer keeping pending records serialized off-heap or on disk.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+import com.riversand.rsconnect.interfaces.models.IRecord;
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * Inbound records are serialized as they are added, so the heap holds no Gson tree of a pending record. On
+ * {@link #transform()} the records are read back and transformed chunk by chunk with
+ * {@link GDSNTransformer#transformBatch}, the outbound records are serialized in turn and read back one by one by the
+ * returned iterator. Only one chunk of trees is on the heap at a time, whatever the size of the batch.
+ * <p>
+ * Half of the memory budget is used for inbound and half for outbound records; past it records are spilled to a file
+ * in the spill directory. The buffer is meant for a single thread. Close it to release the memory and delete the spill
+ * files.
+ */
+public final class SpillingBatchBuffer implements AutoCloseable {
+   private final GDSNTransformer transformer;
+   private final int chunkSize;
+   private final SerializedRecordStore inbound;
+   private final SerializedRecordStore outbound;
+   private boolean transformed;
+
+   /**
+    * @param transformer  transformer of the records
+    * @param directory    directory of the spill files
+    * @param memoryBudget bytes of off-heap memory used for pending records before they are spilled
+    * @param chunkSize    records transformed together, the records on the heap at a time
+    */
+   public SpillingBatchBuffer(GDSNTransformer transformer, Path directory, long memoryBudget, int chunkSize) {
+      if (transformer == null || directory == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "transformer and spill directory cannot be null");
+      }
+      if (chunkSize < 1) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "chunkSize must be positive");
+      }
+      this.transformer = transformer;
+      this.chunkSize = chunkSize;
+      this.inbound = new SerializedRecordStore(directory, memoryBudget / 2);
+      this.outbound = new SerializedRecordStore(directory, memoryBudget - memoryBudget / 2);
+   }
+
+   /**
+    * Buffer an inbound record, pruned to the parts the mappings read, see {@link SourceProjection}. Records cannot be
+    * added once the buffer is transformed.
+    */
+   public void add(IRecord record) {
+      if (transformed) {
+         throw new ConnectRuntimeException(RSC_7820, "Records cannot be added after the batch is transformed");
+      }
+      if (!(record instanceof JsonRecord)) {
+         throw new ConnectRuntimeException(RSC_7820, "Record doesn't support for transformation");
+      }
+      inbound.add(transformer.getSourceProjection().project(((JsonRecord) record).getJsonObject()));
+   }
+
+   /**
+    * @return number of buffered inbound records
+    */
+   public int size() {
+      return inbound.size();
+   }
+
+   /**
+    * @return bytes of the current spill files, inbound and outbound records together. The inbound spill file is
+    * deleted once the batch is transformed.
+    */
+   public long getSpilledBytes() {
+      return inbound.getSpilledBytes() + outbound.getSpilledBytes();
+   }
+
+   /**
+    * Transform the buffered records. Can be called once.
+    *
+    * @return outbound records in the order of the inbound records, read lazily from the buffer
+    */
+   public Iterator<IRecord> transform() {
+      if (transformed) {
+         throw new ConnectRuntimeException(RSC_7820, "The batch is already transformed");
+      }
+      transformed = true;
+      List<IRecord> chunk = new ArrayList<>(Math.min(chunkSize, Math.max(1, inbound.size())));
+      Iterator<JsonObject> records = inbound.iterator();
+      while (records.hasNext()) {
+         chunk.add(new JsonRecord(records.next(), null));
+         if (chunk.size() == chunkSize || !records.hasNext()) {
+            for (IRecord outboundRecord : transformer.transformBatch(chunk, null)) {
+               if (outboundRecord != null) {
+                  outbound.add(((JsonRecord) outboundRecord).getJsonObject());
+               }
+            }
+            chunk.clear();
+         }
+      }
+      releaseInbound();
+      Iterator<JsonObject> outboundRecords = outbound.iterator();
+      return new Iterator<IRecord>() {
+         @Override
+         public boolean hasNext() {
+            return outboundRecords.hasNext();
+         }
+
+         @Override
+         public IRecord next() {
+            if (!hasNext()) {
+               throw new NoSuchElementException();
+            }
+            return new JsonRecord(outboundRecords.next(), null);
+         }
+      };
+   }
+
+   @Override
+   public void close() throws IOException {
+      try {
+         inbound.close();
+      } finally {
+         outbound.close();
+      }
+   }
+
+   private void releaseInbound() {
+      try {
+         inbound.close();
+      } catch (IOException ex) {
+         throw new ConnectRuntimeException(RSC_7820, "Failed to release the inbound buffer: " + ex.getMessage());
+      }
+   }
+}
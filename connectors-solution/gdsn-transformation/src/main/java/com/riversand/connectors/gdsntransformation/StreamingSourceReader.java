@@ -0,0 +1,243 @@
+/*
+   FILE: StreamingSourceReader.java
+
+   PURPOSE: Read an RSJSON entity from a token stream, keeping only the parts the transform plan reads.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.IOException;
+import java.util.Set;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+/**
+ * The entity is read token by token. Attributes are looked up in the {@link SourceProjection} of the entity type as they
+ * are encountered: attributes no mapping reads are skipped without building a tree, as are the context level
+ * relationships and the relationships themselves when there are no relationship mappings. The result is a regular RSJSON
+ * object, pruned like {@link SourceProjection#project(JsonObject)} prunes a tree.
+ * <p>
+ * The type is usually the first property of the entity. When the data object comes before it, the attributes of all
+ * entity types are kept.
+ */
+final class StreamingSourceReader {
+   private static final String CONTEXTS = SourceProjection.CONTEXTS;
+   private static final String REL_TO = SourceProjection.REL_TO;
+
+   private final SourceProjection projection;
+   private final boolean readRelationships;
+   private final Set<String> relationshipAttributes;
+
+   StreamingSourceReader(SourceProjection projection) {
+      this.projection = projection;
+      this.readRelationships = projection.readsRelationships();
+      this.relationshipAttributes = projection.getRelationshipAttributes();
+   }
+
+   /**
+    * Read the next entity from the reader.
+    */
+   JsonObject read(JsonReader reader) throws IOException {
+      JsonObject entity = new JsonObject();
+      String entityType = null;
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (Constants.DATA.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            entity.add(name, readData(reader, getSourceAttributes(entityType)));
+         } else {
+            JsonElement value = parse(reader);
+            entity.add(name, value);
+            if (Constants.TYPE.equals(name) && value.isJsonPrimitive()) {
+               entityType = value.getAsString();
+            }
+         }
+      }
+      reader.endObject();
+      return entity;
+   }
+
+   /**
+    * @return attributes read for the entity type, all attributes read by the plan when the type is not known yet, or
+    * null when every attribute is kept
+    */
+   private Set<String> getSourceAttributes(String entityType) {
+      return entityType == null ? projection.getAttributes() : projection.getAttributes(entityType);
+   }
+
+   private JsonObject readData(JsonReader reader, Set<String> attributes) throws IOException {
+      JsonObject data = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (Constants.ATTRIBUTES.equals(name)) {
+            data.add(name, readAttributes(reader, attributes));
+         } else if (CONTEXTS.equals(name) && reader.peek() == JsonToken.BEGIN_ARRAY) {
+            data.add(name, readContexts(reader, attributes));
+         } else if (Constants.OPERATION_SEARCH_RELATIONSHIPS.equals(name)) {
+            if (readRelationships) {
+               data.add(name, readRelationships(reader));
+            } else {
+               reader.skipValue();
+            }
+         } else {
+            data.add(name, parse(reader));
+         }
+      }
+      reader.endObject();
+      return data;
+   }
+
+   private JsonArray readContexts(JsonReader reader, Set<String> attributes) throws IOException {
+      JsonArray contexts = new JsonArray();
+      reader.beginArray();
+      while (reader.hasNext()) {
+         if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+            reader.skipValue();
+            continue;
+         }
+         JsonObject context = new JsonObject();
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (Constants.ATTRIBUTES.equals(name)) {
+               context.add(name, readAttributes(reader, attributes));
+            } else if (Constants.OPERATION_SEARCH_RELATIONSHIPS.equals(name)) {
+               reader.skipValue();
+            } else {
+               context.add(name, parse(reader));
+            }
+         }
+         reader.endObject();
+         contexts.add(context);
+      }
+      reader.endArray();
+      return contexts;
+   }
+
+   private JsonElement readRelationships(JsonReader reader) throws IOException {
+      if (reader.peek() != JsonToken.BEGIN_OBJECT) {
+         return parse(reader);
+      }
+      JsonObject relationships = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String relationshipType = reader.nextName();
+         if (reader.peek() != JsonToken.BEGIN_ARRAY) {
+            reader.skipValue();
+            continue;
+         }
+         JsonArray elements = new JsonArray();
+         reader.beginArray();
+         while (reader.hasNext()) {
+            if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+               elements.add(readRelationship(reader));
+            } else {
+               reader.skipValue();
+            }
+         }
+         reader.endArray();
+         relationships.add(relationshipType, elements);
+      }
+      reader.endObject();
+      return relationships;
+   }
+
+   /**
+    * A relationship element keeps its mapped attributes and the attributes of the related entity.
+    */
+   private JsonObject readRelationship(JsonReader reader) throws IOException {
+      if (relationshipAttributes == null) {
+         return parse(reader).getAsJsonObject();
+      }
+      JsonObject relationship = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (Constants.ATTRIBUTES.equals(name)) {
+            relationship.add(name, readAttributes(reader, relationshipAttributes));
+         } else if (REL_TO.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            relationship.add(name, readRelTo(reader));
+         } else {
+            readScalar(reader, relationship, name);
+         }
+      }
+      reader.endObject();
+      return relationship;
+   }
+
+   private JsonObject readRelTo(JsonReader reader) throws IOException {
+      JsonObject relTo = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (Constants.DATA.equals(name) && reader.peek() == JsonToken.BEGIN_OBJECT) {
+            JsonObject data = new JsonObject();
+            reader.beginObject();
+            while (reader.hasNext()) {
+               String dataName = reader.nextName();
+               if (Constants.ATTRIBUTES.equals(dataName)) {
+                  data.add(dataName, parse(reader));
+               } else {
+                  reader.skipValue();
+               }
+            }
+            reader.endObject();
+            relTo.add(name, data);
+         } else {
+            readScalar(reader, relTo, name);
+         }
+      }
+      reader.endObject();
+      return relTo;
+   }
+
+   /**
+    * @param attributes names of the attributes to keep, null to keep all
+    */
+   private JsonElement readAttributes(JsonReader reader, Set<String> attributes) throws IOException {
+      if (attributes == null || reader.peek() != JsonToken.BEGIN_OBJECT) {
+         return parse(reader);
+      }
+      JsonObject kept = new JsonObject();
+      reader.beginObject();
+      while (reader.hasNext()) {
+         String name = reader.nextName();
+         if (attributes.contains(name)) {
+            kept.add(name, parse(reader));
+         } else {
+            reader.skipValue();
+         }
+      }
+      reader.endObject();
+      return kept;
+   }
+
+   private static void readScalar(JsonReader reader, JsonObject parent, String name) throws IOException {
+      JsonToken token = reader.peek();
+      if (token == JsonToken.BEGIN_OBJECT || token == JsonToken.BEGIN_ARRAY) {
+         reader.skipValue();
+      } else {
+         parent.add(name, parse(reader));
+      }
+   }
+
+   private static JsonElement parse(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.NULL) {
+         reader.nextNull();
+         return JsonNull.INSTANCE;
+      }
+      return new JsonParser().parse(reader);
+   }
+}
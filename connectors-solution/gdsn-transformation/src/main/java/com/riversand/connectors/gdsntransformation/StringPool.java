@@ -0,0 +1,93 @@
+/*
+   FILE: StringPool.java
+
+   PURPOSE: Bounded pool of the enumerated strings of the output, such as locales and units of measure.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Every output record repeats the same few language codes, unit codes, reference codes and relationship attribute
+ * names. The pool hands out one instance per distinct value, so buffered and cached outputs share them instead of
+ * retaining a copy per record. Gson never modifies a primitive once built, sharing it between trees is safe.
+ * <p>
+ * The pool belongs to the {@link CompiledProfile}, so all transformers of the profile use it from their worker threads
+ * at the same time and it lives as long as the profile stays in the {@link TransformerRegistry}. Lookups and inserts go
+ * through concurrent maps; a slot is reserved with an atomic counter before an insert and handed back when another
+ * thread inserted the value first, so the pool never holds more than {@code maximumSize} values, the strings and the
+ * primitives counted together. Values are never evicted: once full, or for values longer than codes usually are, the
+ * value is returned as is.
+ */
+final class StringPool {
+   static final int MAX_VALUE_LENGTH = 64;
+
+   private final int maximumSize;
+   private final AtomicInteger size = new AtomicInteger();
+   private final ConcurrentMap<String, JsonPrimitive> primitives = new ConcurrentHashMap<>();
+   private final ConcurrentMap<String, String> strings = new ConcurrentHashMap<>();
+
+   /**
+    * @param maximumSize number of distinct values kept, 0 disables the pool
+    */
+   StringPool(int maximumSize) {
+      this.maximumSize = Math.max(0, maximumSize);
+   }
+
+   /**
+    * @return shared string primitive of the value
+    */
+   JsonPrimitive primitive(String value) {
+      JsonPrimitive primitive = primitives.get(value);
+      if (primitive != null) {
+         return primitive;
+      }
+      primitive = new JsonPrimitive(intern(value));
+      if (value.length() <= MAX_VALUE_LENGTH && reserve()) {
+         JsonPrimitive existing = primitives.putIfAbsent(primitive.getAsString(), primitive);
+         if (existing != null) {
+            size.decrementAndGet();
+            return existing;
+         }
+      }
+      return primitive;
+   }
+
+   /**
+    * @return shared instance of the value
+    */
+   String intern(String value) {
+      String pooled = strings.get(value);
+      if (pooled != null) {
+         return pooled;
+      }
+      if (value.length() <= MAX_VALUE_LENGTH && reserve()) {
+         pooled = strings.putIfAbsent(value, value);
+         if (pooled != null) {
+            size.decrementAndGet();
+            return pooled;
+         }
+      }
+      return value;
+   }
+
+   int size() {
+      return size.get();
+   }
+
+   private boolean reserve() {
+      if (size.incrementAndGet() > maximumSize) {
+         size.decrementAndGet();
+         return false;
+      }
+      return true;
+   }
+}
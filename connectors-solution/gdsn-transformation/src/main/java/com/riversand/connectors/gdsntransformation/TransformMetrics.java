@@ -0,0 +1,63 @@
+/*
+   FILE: TransformMetrics.java
+
+   PURPOSE: Instrumentation callbacks of the GDSN transformer.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+/**
+ * Receives the measurements of {@link GDSNTransformer}. Implementations are called from the transforming threads
+ * and must be thread safe and cheap; {@link TransformStatistics} is the default, JMX backed, implementation.
+ * <p>
+ * Records are always counted and timed. Mapping level callbacks are made only for the sampled records, see
+ * {@link GDSNSettings#METRICS_SAMPLE_RATE}. Mappings are identified by {@code entityType:source->destination}.
+ */
+public interface TransformMetrics {
+   TransformMetrics NOOP = new TransformMetrics() {
+      @Override
+      public void recordTransformed(String entityType, long nanos) {
+      }
+
+      @Override
+      public void mappingApplied(String mapping, long nanos) {
+      }
+
+      @Override
+      public void mappingMissed(String mapping) {
+      }
+
+      @Override
+      public void mappingFailed(String mapping) {
+      }
+
+      @Override
+      public void relationshipsTransformed(String entityType, int elements) {
+      }
+   };
+
+   /**
+    * @param nanos time spent on the record, relationships included
+    */
+   void recordTransformed(String entityType, long nanos);
+
+   /**
+    * @param nanos time spent reading and writing the values of the mapping
+    */
+   void mappingApplied(String mapping, long nanos);
+
+   /**
+    * The source of the mapping had no value in the record.
+    */
+   void mappingMissed(String mapping);
+
+   void mappingFailed(String mapping);
+
+   /**
+    * @param elements number of relationship elements transformed for one record
+    */
+   void relationshipsTransformed(String entityType, int elements);
+}
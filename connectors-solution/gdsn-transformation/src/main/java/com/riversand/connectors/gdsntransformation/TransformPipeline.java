@@ -0,0 +1,313 @@
+/*
+   FILE: TransformPipeline.java
+
+   PURPOSE: Pipelined transform stage between collect and publish, with back-pressure and batched publishing.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+import com.riversand.rsconnect.interfaces.models.IRecord;
+import com.riversand.rsconnect.interfaces.models.RdpStatusDetail;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7820;
+
+/**
+ * The collector {@link #submit(IRecord)}s inbound records, worker threads transform them and a publisher thread hands
+ * the outbound records to the publisher in batches of the publish batch size, so collect, transform and publish
+ * overlap. The stages are connected by {@link BoundedQueue}s: when the publisher falls behind, the outbound queue fills
+ * up, the workers stop taking records and {@link #submit(IRecord)} waits until there is room again.
+ * <p>
+ * With more than one worker the outbound records are not in the order they were submitted. Records dropped by the
+ * {@code changedOnly} delta mode are not published. The first failure of a record or of the publisher is rethrown by
+ * the next {@link #submit(IRecord)}, {@link #flush()} or {@link #close()}; the pipeline keeps draining after a
+ * failure, so no thread stays blocked.
+ * <p>
+ * Idle threads spin briefly, then park until the thread changing what they wait for unparks them: a submit or a
+ * closing pipeline wakes the workers, a transformed record, a flush or a close the publisher, and a published batch
+ * a flush waiting for it.
+ * <p>
+ * Records may be submitted from several threads; {@link #flush()} and {@link #close()} are called by the collector once
+ * it stopped submitting. Closing waits until every submitted record is published. Create pipelines with
+ * {@link GDSNTransformer#newPipeline(Consumer, RdpStatusDetail)}.
+ */
+public final class TransformPipeline implements AutoCloseable {
+   private final ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(TransformPipeline.class);
+   private final GDSNTransformer transformer;
+   private final Consumer<List<IRecord>> publisher;
+   private final RdpStatusDetail messages;
+   private final int batchSize;
+   private final BoundedQueue<IRecord> inbound;
+   private final BoundedQueue<IRecord> outbound;
+   private final Thread[] workers;
+   private final Thread publisherThread;
+   private final AtomicInteger submitting = new AtomicInteger();
+   private final AtomicLong submitted = new AtomicLong();
+   private final AtomicLong transformed = new AtomicLong();
+   private final AtomicLong completed = new AtomicLong();
+   private final AtomicReference<Throwable> failure = new AtomicReference<>();
+   private final AtomicBoolean closed = new AtomicBoolean();
+   private final Waiters inboundElements = new Waiters();
+   private final Waiters inboundRoom = new Waiters();
+   private final Waiters outboundElements = new Waiters();
+   private final Waiters outboundRoom = new Waiters();
+   private final Waiters completion = new Waiters();
+   private volatile boolean flushRequested;
+   private volatile boolean closing;
+   private volatile boolean workersDone;
+
+   /**
+    * @param transformer   transformer of the records, not closed by the pipeline
+    * @param publisher     receives the outbound records, one batch at a time from a single thread
+    * @param messages      status detail receiving the mapping errors, may be null
+    * @param workers       number of transforming threads
+    * @param queueCapacity records each handoff queue holds
+    * @param batchSize     outbound records per published batch
+    */
+   public TransformPipeline(GDSNTransformer transformer, Consumer<List<IRecord>> publisher, RdpStatusDetail messages, int workers, int queueCapacity, int batchSize) {
+      if (transformer == null || publisher == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "transformer and publisher cannot be null");
+      }
+      if (workers < 1 || queueCapacity < 1 || batchSize < 1) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "workers, queueCapacity and batchSize must be positive");
+      }
+      this.transformer = transformer;
+      this.publisher = publisher;
+      this.messages = messages;
+      this.batchSize = batchSize;
+      this.inbound = new BoundedQueue<>(queueCapacity);
+      this.outbound = new BoundedQueue<>(queueCapacity);
+      this.workers = new Thread[workers];
+      for (int i = 0; i < workers; i++) {
+         this.workers[i] = newThread(this::transformRecords, "gdsn-pipeline-worker-" + i);
+      }
+      this.publisherThread = newThread(this::publishRecords, "gdsn-pipeline-publisher");
+      for (Thread worker : this.workers) {
+         worker.start();
+      }
+      this.publisherThread.start();
+   }
+
+   private static Thread newThread(Runnable task, String name) {
+      Thread thread = new Thread(task, name);
+      thread.setDaemon(true);
+      return thread;
+   }
+
+   /**
+    * Hand a record to the workers, waiting while the pipeline is full.
+    */
+   public void submit(IRecord record) {
+      if (record == null) {
+         throw new ConnectIllegalArgumentException(RSC_7820, "record cannot be null");
+      }
+      // the workers do not stop while a submit is in progress, so a record that got past the closing check is published
+      submitting.incrementAndGet();
+      try {
+         if (closing) {
+            throw new ConnectRuntimeException(RSC_7820, "Records cannot be submitted to a closed pipeline");
+         }
+         throwFailure();
+         submitted.incrementAndGet();
+         for (int attempt = 0; !inbound.offer(record); attempt++) {
+            inboundRoom.await(attempt, inbound::hasRoom);
+         }
+         inboundElements.signal();
+      } finally {
+         submitting.decrementAndGet();
+         if (closing) {
+            inboundElements.signal();
+         }
+      }
+   }
+
+   /**
+    * Publish the records submitted so far, including the last, partial batch, and wait until they are published.
+    */
+   public void flush() {
+      flushRequested = true;
+      outboundElements.signal();
+      try {
+         awaitCompleted();
+      } finally {
+         flushRequested = false;
+      }
+      throwFailure();
+   }
+
+   /**
+    * @return records submitted and not yet published or dropped
+    */
+   public long getPending() {
+      return submitted.get() - completed.get();
+   }
+
+   /**
+    * Stop accepting records, publish every submitted record and stop the threads. The transformer stays open. Submits
+    * racing with the close either fail or have their record published before the threads stop.
+    */
+   @Override
+   public void close() {
+      if (!closed.compareAndSet(false, true)) {
+         return;
+      }
+      closing = true;
+      inboundElements.signal();
+      outboundElements.signal();
+      try {
+         for (Thread worker : workers) {
+            worker.join();
+         }
+         workersDone = true;
+         outboundElements.signal();
+         publisherThread.join();
+      } catch (InterruptedException ex) {
+         Thread.currentThread().interrupt();
+         throw new ConnectRuntimeException(RSC_7820, "Transform pipeline was interrupted while draining");
+      } finally {
+         transformer.pipelineClosed(this);
+      }
+      throwFailure();
+   }
+
+   private void awaitCompleted() {
+      for (int attempt = 0; completed.get() < submitted.get(); attempt++) {
+         completion.await(attempt, () -> completed.get() >= submitted.get());
+      }
+   }
+
+   private void transformRecords() {
+      int attempt = 0;
+      while (true) {
+         IRecord record = inbound.poll();
+         if (record == null) {
+            if (isDrained()) {
+               return;
+            }
+            inboundElements.await(attempt++, () -> !inbound.isEmpty() || isDrained());
+            continue;
+         }
+         attempt = 0;
+         inboundRoom.signal();
+         IRecord outboundRecord = null;
+         if (failure.get() == null) {
+            try {
+               outboundRecord = transformer.transformChanged(record, messages);
+            } catch (Throwable ex) {
+               fail(ex);
+            }
+         }
+         if (outboundRecord == null) {
+            transformed.incrementAndGet();
+            completed.incrementAndGet();
+            recordsCompleted();
+            outboundElements.signal();
+            continue;
+         }
+         for (int wait = 0; !outbound.offer(outboundRecord); wait++) {
+            outboundRoom.await(wait, outbound::hasRoom);
+         }
+         transformed.incrementAndGet();
+         outboundElements.signal();
+      }
+   }
+
+   /**
+    * The pipeline is closing, no submit is in progress and every submitted record is published or dropped.
+    */
+   private boolean isDrained() {
+      if (!closing || submitting.get() != 0) {
+         return false;
+      }
+      return completed.get() == submitted.get();
+   }
+
+   private void publishRecords() {
+      List<IRecord> batch = new ArrayList<>(batchSize);
+      int attempt = 0;
+      while (true) {
+         IRecord record = outbound.poll();
+         if (record != null) {
+            attempt = 0;
+            outboundRoom.signal();
+            batch.add(record);
+            if (batch.size() >= batchSize) {
+               batch = publish(batch);
+            }
+            continue;
+         }
+         boolean drained = workersDone && outbound.isEmpty();
+         if (!batch.isEmpty() && (drained || isLastBatch())) {
+            batch = publish(batch);
+         }
+         if (drained && batch.isEmpty()) {
+            return;
+         }
+         List<IRecord> pending = batch;
+         outboundElements.await(attempt++, () -> !outbound.isEmpty() || workersDone || !pending.isEmpty() && isLastBatch());
+      }
+   }
+
+   /**
+    * Every submitted record is transformed and in the batch: publish it when asked to.
+    */
+   private boolean isLastBatch() {
+      return (flushRequested || closing) && transformed.get() == submitted.get() && outbound.isEmpty();
+   }
+
+   /**
+    * Wake the threads waiting for published or dropped records: a flush, and the workers of a closing pipeline, which
+    * stop once every record is completed.
+    */
+   private void recordsCompleted() {
+      completion.signal();
+      if (closing) {
+         inboundElements.signal();
+      }
+   }
+
+   /**
+    * @return empty batch for the next records
+    */
+   private List<IRecord> publish(List<IRecord> batch) {
+      if (failure.get() == null) {
+         try {
+            publisher.accept(batch);
+         } catch (Throwable ex) {
+            fail(ex);
+         }
+      }
+      completed.addAndGet(batch.size());
+      recordsCompleted();
+      return new ArrayList<>(batchSize);
+   }
+
+   private void fail(Throwable ex) {
+      if (failure.compareAndSet(null, ex)) {
+         pmLogger.error(Constants.RSCONNECT_SERVICE, RSC_7273, "Transform pipeline failed, remaining records are dropped: " + ex);
+      }
+   }
+
+   private void throwFailure() {
+      Throwable ex = failure.get();
+      if (ex != null) {
+         throw new ConnectRuntimeException(RSC_7820, "Transform pipeline failed: " + ex);
+      }
+   }
+}
@@ -0,0 +1,86 @@
+/*
+   FILE: TransformPlan.java
+
+   PURPOSE: Immutable mapping plan of a transform profile, grouped by entity type.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.riversand.rsconnect.common.config.FieldMapping;
+
+/**
+ * Built once per transformer from the profile field map. Disabled mappings and mappings without an entity type are
+ * dropped here, so a record only ever visits the mappings of its own entity type.
+ */
+final class TransformPlan {
+   private final Map<String, EntityPlan> entityPlans;
+   private final Set<String> sourceAttributes;
+
+   private TransformPlan(Map<String, EntityPlan> entityPlans) {
+      this.entityPlans = entityPlans;
+      List<CompiledMapping> mappings = new ArrayList<>();
+      entityPlans.values().forEach(entityPlan -> mappings.addAll(entityPlan.getMappings()));
+      this.sourceAttributes = EntityPlan.collectSourceAttributes(mappings);
+   }
+
+   static TransformPlan compile(List<FieldMapping> fieldMap) {
+      Map<String, List<FieldMapping>> mappingsByType = new LinkedHashMap<>();
+      for (FieldMapping fieldMapping : fieldMap) {
+         if (fieldMapping == null || !fieldMapping.isEnabled() || fieldMapping.getEntityType() == null) {
+            continue;
+         }
+         mappingsByType.computeIfAbsent(fieldMapping.getEntityType(), key -> new ArrayList<>()).add(fieldMapping);
+      }
+
+      Map<String, EntityPlan> entityPlans = new LinkedHashMap<>();
+      for (Map.Entry<String, List<FieldMapping>> entry : mappingsByType.entrySet()) {
+         List<CompiledMapping> mappings = new ArrayList<>(entry.getValue().size());
+         for (FieldMapping fieldMapping : entry.getValue()) {
+            mappings.add(new CompiledMapping(fieldMapping, mappings.size()));
+         }
+         entityPlans.put(entry.getKey(), new EntityPlan(entry.getKey(), mappings));
+      }
+      return new TransformPlan(Collections.unmodifiableMap(entityPlans));
+   }
+
+   /**
+    * Relationship mappings are matched on the entity type of the parent record only, they are compiled in profile order.
+    */
+   static RelationshipPlan compileRelationships(List<FieldMapping> fieldMap) {
+      List<CompiledMapping> mappings = new ArrayList<>();
+      if (fieldMap != null) {
+         for (FieldMapping fieldMapping : fieldMap) {
+            mappings.add(new CompiledMapping(fieldMapping, mappings.size()));
+         }
+      }
+      return new RelationshipPlan(mappings);
+   }
+
+   /**
+    * @return plan of the entity type, or null when the profile has no enabled mapping for it.
+    */
+   EntityPlan getEntityPlan(String entityType) {
+      return entityPlans.get(entityType);
+   }
+
+   /**
+    * Source attributes read by any entity type, see {@link EntityPlan#collectSourceAttributes}.
+    */
+   Set<String> getSourceAttributes() {
+      return sourceAttributes;
+   }
+
+   Map<String, EntityPlan> getEntityPlans() {
+      return entityPlans;
+   }
+}
@@ -0,0 +1,169 @@
+/*
+   FILE: TransformStatistics.java
+
+   PURPOSE: Default TransformMetrics, counters and histograms published as an MXBean per profile.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
+
+/**
+ * All counters are {@link LongAdder}s, the transforming threads never contend on a lock. Transformers of the same
+ * profile in one JVM share one instance, registered as
+ * {@code com.riversand.connectors.gdsntransformation:type=TransformStatistics,profile=<profile id>}.
+ */
+public class TransformStatistics implements TransformMetrics, TransformStatisticsMXBean {
+   private static final String OBJECT_NAME = "com.riversand.connectors.gdsntransformation:type=TransformStatistics,profile=";
+   private static final ConcurrentMap<String, TransformStatistics> PROFILES = new ConcurrentHashMap<>();
+   private static ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(TransformStatistics.class);
+
+   private final LatencyHistogram recordLatency = new LatencyHistogram();
+   private final LongAdder relationshipElements = new LongAdder();
+   private final ConcurrentMap<String, LongAdder> entityTypeNanos = new ConcurrentHashMap<>();
+   private final ConcurrentMap<String, LongAdder> mappingNanos = new ConcurrentHashMap<>();
+   private final ConcurrentMap<String, LongAdder> mappingMisses = new ConcurrentHashMap<>();
+   private final ConcurrentMap<String, LongAdder> mappingFailures = new ConcurrentHashMap<>();
+   private volatile long startNanos = System.nanoTime();
+
+   /**
+    * Statistics of the profile, created and registered with the platform MBean server on first use.
+    */
+   public static TransformStatistics forProfile(String profileId) {
+      return PROFILES.computeIfAbsent(String.valueOf(profileId), id -> {
+         TransformStatistics statistics = new TransformStatistics();
+         register(statistics, id);
+         return statistics;
+      });
+   }
+
+   private static void register(TransformStatistics statistics, String profileId) {
+      try {
+         MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+         ObjectName name = new ObjectName(OBJECT_NAME + ObjectName.quote(profileId));
+         if (!server.isRegistered(name)) {
+            server.registerMBean(statistics, name);
+         }
+      } catch (Exception ex) {
+         // statistics are still collected and readable through the instance
+         pmLogger.warn("", Constants.RSCONNECT_SERVICE, RSC_7273, "Failed to register transform statistics: " + ex.getMessage());
+      }
+   }
+
+   @Override
+   public void recordTransformed(String entityType, long nanos) {
+      recordLatency.record(nanos);
+      counter(entityTypeNanos, entityType).add(nanos);
+   }
+
+   @Override
+   public void mappingApplied(String mapping, long nanos) {
+      counter(mappingNanos, mapping).add(nanos);
+   }
+
+   @Override
+   public void mappingMissed(String mapping) {
+      counter(mappingMisses, mapping).increment();
+   }
+
+   @Override
+   public void mappingFailed(String mapping) {
+      counter(mappingFailures, mapping).increment();
+   }
+
+   @Override
+   public void relationshipsTransformed(String entityType, int elements) {
+      relationshipElements.add(elements);
+   }
+
+   private static LongAdder counter(ConcurrentMap<String, LongAdder> counters, String key) {
+      LongAdder counter = counters.get(key);
+      return counter != null ? counter : counters.computeIfAbsent(key, k -> new LongAdder());
+   }
+
+   @Override
+   public long getRecordCount() {
+      return recordLatency.getCount();
+   }
+
+   @Override
+   public double getRecordsPerSecond() {
+      double seconds = (System.nanoTime() - startNanos) / 1e9;
+      return seconds <= 0 ? 0 : recordLatency.getCount() / seconds;
+   }
+
+   @Override
+   public double getMeanLatencyMicros() {
+      long count = recordLatency.getCount();
+      return count == 0 ? 0 : recordLatency.getTotalNanos() / 1e3 / count;
+   }
+
+   @Override
+   public long getLatencyP50Micros() {
+      return TimeUnit.NANOSECONDS.toMicros(recordLatency.getPercentileNanos(50));
+   }
+
+   @Override
+   public long getLatencyP99Micros() {
+      return TimeUnit.NANOSECONDS.toMicros(recordLatency.getPercentileNanos(99));
+   }
+
+   @Override
+   public long getRelationshipElementCount() {
+      return relationshipElements.sum();
+   }
+
+   @Override
+   public Map<String, Long> getEntityTypeMillis() {
+      return snapshot(entityTypeNanos, 1_000_000);
+   }
+
+   @Override
+   public Map<String, Long> getMappingMicros() {
+      return snapshot(mappingNanos, 1_000);
+   }
+
+   @Override
+   public Map<String, Long> getMappingMisses() {
+      return snapshot(mappingMisses, 1);
+   }
+
+   @Override
+   public Map<String, Long> getMappingFailures() {
+      return snapshot(mappingFailures, 1);
+   }
+
+   private static Map<String, Long> snapshot(ConcurrentMap<String, LongAdder> counters, long divisor) {
+      Map<String, Long> snapshot = new TreeMap<>();
+      counters.forEach((key, counter) -> snapshot.put(key, counter.sum() / divisor));
+      return snapshot;
+   }
+
+   @Override
+   public void reset() {
+      recordLatency.reset();
+      relationshipElements.reset();
+      entityTypeNanos.clear();
+      mappingNanos.clear();
+      mappingMisses.clear();
+      mappingFailures.clear();
+      startNanos = System.nanoTime();
+   }
+}
@@ -0,0 +1,45 @@
+/*
+   FILE: TransformStatisticsMXBean.java
+
+   PURPOSE: JMX view of the GDSN transform statistics.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Map;
+
+public interface TransformStatisticsMXBean {
+   long getRecordCount();
+
+   double getRecordsPerSecond();
+
+   double getMeanLatencyMicros();
+
+   long getLatencyP50Micros();
+
+   long getLatencyP99Micros();
+
+   long getRelationshipElementCount();
+
+   /**
+    * Total transform time per entity type.
+    */
+   Map<String, Long> getEntityTypeMillis();
+
+   /**
+    * Time per mapping over the sampled records.
+    */
+   Map<String, Long> getMappingMicros();
+
+   /**
+    * Missing source values per mapping over the sampled records.
+    */
+   Map<String, Long> getMappingMisses();
+
+   Map<String, Long> getMappingFailures();
+
+   void reset();
+}
@@ -0,0 +1,117 @@
+/*
+   FILE: TransformerRegistry.java
+
+   PURPOSE: Tenant and profile keyed registry of the compiled transform profiles.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.function.Supplier;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import com.riversand.rsconnect.common.config.TransformConfig;
+
+/**
+ * Transformers created for the same tenant and profile share one {@link CompiledProfile}, so a task start neither
+ * compiles the mappings nor holds a copy of the compiled plans; the transformer itself only keeps its metrics, failure
+ * accounting and executor. The registry is shared by all profiles of the JVM and bounded by {@link #MAXIMUM_SIZE}, the
+ * least recently used profiles are evicted first.
+ * <p>
+ * A profile is compiled again when its mappings config version or the settings it was compiled from changed, or, for
+ * a profile without version, when its mappings changed. Use
+ * {@link #invalidate(String, String)} to drop a profile explicitly, e.g. after its mappings config was updated in
+ * place, together with {@link MappingConfigCache#invalidate(String, String)}.
+ */
+public final class TransformerRegistry {
+   static final int MAXIMUM_SIZE = 128;
+   private static final TransformerRegistry INSTANCE = new TransformerRegistry(MAXIMUM_SIZE);
+
+   private final Cache<Key, CompiledProfile> profiles;
+
+   TransformerRegistry(int maximumSize) {
+      this.profiles = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+   }
+
+   public static TransformerRegistry getInstance() {
+      return INSTANCE;
+   }
+
+   /**
+    * @param contextDelimiter looks the context delimiter of the tenant up, called only when the profile is compiled or
+    *                         has no mappings config version
+    * @param validation       runs before the configuration is compiled, may refuse it by throwing
+    * @return compiled state of the profile, compiled when missing or when the configuration changed. Profiles without
+    * tenant or profile id are compiled for the caller only.
+    */
+   CompiledProfile get(String tenantId, String profileId, TransformConfig config, Supplier<String> contextDelimiter, Runnable validation) {
+      if (tenantId == null || profileId == null) {
+         validation.run();
+         return new CompiledProfile(config, contextDelimiter.get());
+      }
+      Key key = new Key(tenantId, profileId);
+      CompiledProfile profile = profiles.getIfPresent(key);
+      if (profile != null && profile.matches(config, contextDelimiter)) {
+         return profile;
+      }
+      // concurrent first starts may compile twice, the last one is kept
+      validation.run();
+      CompiledProfile compiled = new CompiledProfile(config, contextDelimiter.get());
+      profiles.put(key, compiled);
+      return compiled;
+   }
+
+   /**
+    * Drop the compiled profile and the outputs the incremental transformation remembers for it, the next transformer
+    * of the profile compiles it again.
+    */
+   public void invalidate(String tenantId, String profileId) {
+      profiles.invalidate(new Key(tenantId, profileId));
+      DeltaCache.invalidate(tenantId, profileId);
+   }
+
+   /**
+    * Drop all compiled profiles of the tenant and their remembered outputs.
+    */
+   public void invalidateTenant(String tenantId) {
+      profiles.asMap().keySet().removeIf(key -> key.tenantId.equals(String.valueOf(tenantId)));
+      DeltaCache.invalidateTenant(tenantId);
+   }
+
+   public void invalidateAll() {
+      profiles.invalidateAll();
+      DeltaCache.invalidateAll();
+   }
+
+   long size() {
+      return profiles.size();
+   }
+
+   private static final class Key {
+      private final String tenantId;
+      private final String profileId;
+
+      private Key(String tenantId, String profileId) {
+         this.tenantId = String.valueOf(tenantId);
+         this.profileId = String.valueOf(profileId);
+      }
+
+      @Override
+      public boolean equals(Object other) {
+         if (!(other instanceof Key)) {
+            return false;
+         }
+         Key key = (Key) other;
+         return tenantId.equals(key.tenantId) && profileId.equals(key.profileId);
+      }
+
+      @Override
+      public int hashCode() {
+         return tenantId.hashCode() * 31 + profileId.hashCode();
+      }
+   }
+}
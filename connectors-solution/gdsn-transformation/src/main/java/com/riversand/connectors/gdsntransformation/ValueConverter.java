@@ -0,0 +1,136 @@
+/*
+   FILE: ValueConverter.java
+
+   PURPOSE: Conversion of source values to the JSON type of the destination field.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonPrimitive;
+
+/**
+ * Resolved once per mapping from {@code FieldMapping.getType()}, with the types the transformer passed to
+ * {@code JsonRecord.setValue}: {@code integer} values are parsed as longs, {@code decimal} values as doubles,
+ * {@code boolean} values with {@link Boolean#parseBoolean(String)} and every other type is written as a string. A value
+ * which is not a number fails the mapping with a {@link NumberFormatException}.
+ * <p>
+ * A source primitive which already has the JSON type of the field and would come out unchanged is copied to the output
+ * as is: Gson primitives are immutable, so the output shares the instance parsed from the source. That is a string, a
+ * boolean, an integer number written like {@link Long#toString(long)} writes it or a decimal number written like
+ * {@link Double#toString(double)} writes it. Other numbers go through their string form, so the output has the number
+ * format of the parsed long or double.
+ */
+enum ValueConverter {
+   STRING {
+      @Override
+      JsonElement convert(JsonPrimitive value) {
+         return value.isString() ? value : new JsonPrimitive(value.getAsString());
+      }
+
+      @Override
+      JsonElement convertString(String value) {
+         return new JsonPrimitive(value);
+      }
+   },
+   BOOLEAN {
+      @Override
+      JsonElement convert(JsonPrimitive value) {
+         return value.isBoolean() ? value : convertString(value.getAsString());
+      }
+
+      @Override
+      JsonElement convertString(String value) {
+         return new JsonPrimitive(Boolean.parseBoolean(value));
+      }
+   },
+   INTEGER {
+      /**
+       * Longs of up to 18 digits are recognized from their text without parsing them, longer ones are parsed.
+       */
+      private static final int MAX_PLAIN_DIGITS = 18;
+
+      @Override
+      JsonElement convert(JsonPrimitive value) {
+         String text = value.getAsString();
+         return value.isNumber() && isPlainLong(text) ? value : convertString(text);
+      }
+
+      /**
+       * @return true when the text is the {@link Long#toString(long)} form of a long
+       */
+      private boolean isPlainLong(String text) {
+         int start = text.startsWith("-") ? 1 : 0;
+         int digits = text.length() - start;
+         if (digits == 0 || digits > MAX_PLAIN_DIGITS || (text.charAt(start) == '0' && (digits > 1 || start == 1))) {
+            return false;
+         }
+         for (int i = start; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+               return false;
+            }
+         }
+         return true;
+      }
+
+      @Override
+      JsonElement convertString(String value) {
+         return new JsonPrimitive(Long.parseLong(value));
+      }
+   },
+   DECIMAL {
+      @Override
+      JsonElement convert(JsonPrimitive value) {
+         if (!value.isNumber()) {
+            return convertString(value.getAsString());
+         }
+         if (value.getAsNumber() instanceof Double) {
+            return value;
+         }
+         String text = value.getAsString();
+         double parsed = Double.parseDouble(text);
+         return Double.toString(parsed).equals(text) ? value : new JsonPrimitive(parsed);
+      }
+
+      @Override
+      JsonElement convertString(String value) {
+         return new JsonPrimitive(Double.parseDouble(value));
+      }
+   };
+
+   static ValueConverter forType(String type) {
+      if ("boolean".equalsIgnoreCase(type)) {
+         return BOOLEAN;
+      }
+      if ("integer".equalsIgnoreCase(type)) {
+         return INTEGER;
+      }
+      if ("decimal".equalsIgnoreCase(type)) {
+         return DECIMAL;
+      }
+      return STRING;
+   }
+
+   /**
+    * @param value source value, JSON null or missing values become JSON null
+    */
+   JsonElement convert(JsonElement value) {
+      if (value == null || value.isJsonNull()) {
+         return JsonNull.INSTANCE;
+      }
+      return value.isJsonPrimitive() ? convert(value.getAsJsonPrimitive()) : convertString(value.toString());
+   }
+
+   JsonElement convert(String value) {
+      return value == null ? JsonNull.INSTANCE : convertString(value);
+   }
+
+   abstract JsonElement convert(JsonPrimitive value);
+
+   abstract JsonElement convertString(String value);
+}
@@ -0,0 +1,65 @@
+/*
+   FILE: Waiters.java
+
+   PURPOSE: Spin, yield and park of idle threads until another thread signals a change.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Threads waiting for a condition that other threads change, such as a {@link BoundedQueue} getting an element or
+ * room. A waiter spins and yields first, which is all a busy handoff needs, then registers and parks until
+ * {@link #signal()}. The condition is checked again after the registration and a thread changing it signals after the
+ * change, so a signal between the failed check of the waiter and its park is not lost.
+ */
+final class Waiters {
+   private static final int SPINS = 64;
+   private static final int YIELDS = 64;
+
+   private final Set<Thread> parked = ConcurrentHashMap.newKeySet();
+
+   /**
+    * Wait before checking the condition again. Returns at the latest when a {@link #signal()} followed the call.
+    *
+    * @param attempt number of failed checks so far
+    * @param ready   the condition waited for
+    */
+   void await(int attempt, BooleanSupplier ready) {
+      if (attempt < SPINS) {
+         return;
+      }
+      if (attempt < SPINS + YIELDS) {
+         Thread.yield();
+         return;
+      }
+      Thread current = Thread.currentThread();
+      parked.add(current);
+      try {
+         if (!ready.getAsBoolean()) {
+            LockSupport.park(this);
+         }
+      } finally {
+         parked.remove(current);
+      }
+   }
+
+   /**
+    * Wake the parked waiters up, call after changing their condition.
+    */
+   void signal() {
+      if (parked.isEmpty()) {
+         return;
+      }
+      for (Thread waiter : parked) {
+         LockSupport.unpark(waiter);
+      }
+   }
+}
@@ -0,0 +1,79 @@
+/*
+   FILE: WarmUpRecords.java
+
+   PURPOSE: Synthetic RSJSON entities exercising every mapping of a transform plan, used to warm up the transformer.
+
+   COPYRIGHT: Copyright (c) 2017 Riversand Technologies, Inc. All rights reserved.
+
+   HISTORY: 17 October 2026  agent  Created
+*/
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.common.rsconnect.driver.Constants;
+
+/**
+ * One entity per entity type of the plan, with two values for every mapped attribute and one relationship element
+ * carrying the attributes of the relationship mappings. The entities have no id, so they never enter the delta cache.
+ */
+final class WarmUpRecords {
+   private static final String WARM_UP_RELATIONSHIP = "warmUp";
+
+   private WarmUpRecords() {
+   }
+
+   static List<JsonObject> create(TransformPlan plan, RelationshipPlan relationshipPlan) {
+      List<JsonObject> entities = new ArrayList<>();
+      for (EntityPlan entityPlan : plan.getEntityPlans().values()) {
+         JsonObject data = new JsonObject();
+         data.add(Constants.ATTRIBUTES, attributes(entityPlan.getMappings(), false));
+         if (!relationshipPlan.getMappings(entityPlan.getEntityType()).isEmpty()) {
+            JsonObject relationship = new JsonObject();
+            relationship.add(Constants.ATTRIBUTES, attributes(relationshipPlan.getMappings(entityPlan.getEntityType()), true));
+            JsonArray elements = new JsonArray();
+            elements.add(relationship);
+            JsonObject relationships = new JsonObject();
+            relationships.add(WARM_UP_RELATIONSHIP, elements);
+            data.add(Constants.OPERATION_SEARCH_RELATIONSHIPS, relationships);
+         }
+         JsonObject entity = new JsonObject();
+         entity.addProperty(Constants.TYPE, entityPlan.getEntityType());
+         entity.add(Constants.DATA, data);
+         entities.add(entity);
+      }
+      return entities;
+   }
+
+   private static JsonObject attributes(List<CompiledMapping> mappings, boolean relationship) {
+      JsonObject attributes = new JsonObject();
+      for (CompiledMapping mapping : mappings) {
+         String attribute = relationship ? mapping.getRelationshipAttribute() : mapping.getSourceAttribute();
+         if (attribute != null && !attributes.has(attribute)) {
+            JsonArray values = new JsonArray();
+            values.add(value());
+            values.add(value());
+            JsonObject attributeObject = new JsonObject();
+            attributeObject.add("values", values);
+            attributes.add(attribute, attributeObject);
+         }
+      }
+      return attributes;
+   }
+
+   private static JsonObject value() {
+      JsonObject value = new JsonObject();
+      value.addProperty(Constants.Mappings.VALUE, "1");
+      value.addProperty("locale", "en-US");
+      value.addProperty("uom", "KGM");
+      value.addProperty("source", "internal");
+      JsonObject properties = new JsonObject();
+      properties.addProperty("referenceDataIdentifier", "1");
+      value.add("properties", properties);
+      return value;
+   }
+}
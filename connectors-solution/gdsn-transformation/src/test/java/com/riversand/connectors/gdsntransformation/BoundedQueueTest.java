@@ -0,0 +1,79 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BoundedQueueTest {
+   @Test
+   public void testOfferRefusedWhenFull() {
+      BoundedQueue<Integer> queue = new BoundedQueue<>(3);
+      assertEquals(4, queue.capacity());
+      assertTrue(queue.isEmpty());
+      for (int i = 0; i < 4; i++) {
+         assertTrue(queue.offer(i));
+      }
+      assertFalse(queue.hasRoom());
+      assertFalse(queue.offer(4));
+      assertEquals(Integer.valueOf(0), queue.poll());
+      assertTrue(queue.offer(4));
+      for (int i = 1; i <= 4; i++) {
+         assertEquals(Integer.valueOf(i), queue.poll());
+      }
+      assertNull(queue.poll());
+      assertTrue(queue.isEmpty());
+      assertTrue(queue.hasRoom());
+   }
+
+   @Test
+   public void testConcurrentProducersAndConsumers() throws Exception {
+      BoundedQueue<Long> queue = new BoundedQueue<>(16);
+      int producers = 4;
+      long perProducer = 20000;
+      AtomicLong consumed = new AtomicLong();
+      AtomicLong sum = new AtomicLong();
+      Waiters elements = new Waiters();
+      Waiters room = new Waiters();
+      List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+         threads.add(new Thread(() -> {
+            for (long value = 1; value <= perProducer; value++) {
+               for (int attempt = 0; !queue.offer(value); attempt++) {
+                  room.await(attempt, queue::hasRoom);
+               }
+               elements.signal();
+            }
+         }));
+         threads.add(new Thread(() -> {
+            for (int attempt = 0; consumed.get() < producers * perProducer; ) {
+               Long value = queue.poll();
+               if (value == null) {
+                  elements.await(attempt++, () -> !queue.isEmpty() || consumed.get() >= producers * perProducer);
+               } else {
+                  attempt = 0;
+                  room.signal();
+                  sum.addAndGet(value);
+                  if (consumed.incrementAndGet() == producers * perProducer) {
+                     // wake the other consumers, they stop
+                     elements.signal();
+                  }
+               }
+            }
+         }));
+      }
+      threads.forEach(Thread::start);
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      assertEquals(producers * perProducer, consumed.get());
+      assertEquals(producers * perProducer * (perProducer + 1) / 2, sum.get());
+      assertTrue(queue.isEmpty());
+   }
+}
@@ -0,0 +1,61 @@
+package com.riversand.connectors.gdsntransformation;
+
+import org.junit.Test;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class CompiledPathTest {
+   private static final JsonParser PARSER = new JsonParser();
+
+   @Test
+   public void testFind() {
+      JsonObject record = PARSER.parse("{\"data\":{\"attributes\":{\"gtin\":{\"values\":[{\"value\":\"1\"},{\"value\":2}]}}}}").getAsJsonObject();
+      assertEquals("1", CompiledPath.compile("data.attributes.gtin.values[0].value").findString(record));
+      assertEquals("2", CompiledPath.compile("data.attributes.gtin.values[%d].value").find(record, 1).getAsString());
+      assertEquals(2, CompiledPath.compile("data.attributes.gtin.values").findArray(record).size());
+      assertNull(CompiledPath.compile("data.attributes.gtin.values[2].value").find(record));
+      assertNull(CompiledPath.compile("data.attributes.weight.values").findArray(record));
+   }
+
+   @Test
+   public void testSet() {
+      JsonObject record = new JsonObject();
+      CompiledPath path = CompiledPath.compile("tradeItemDescriptors[%d]");
+      path.child("tradeItemDescriptorCode").set(record, 0, new JsonPrimitive("Case"));
+      path.child("__value__").set(record, 0, new JsonPrimitive("CASE"));
+      path.child("tradeItemDescriptorCode").set(record, 1, new JsonPrimitive("Each"));
+      CompiledPath.compile("codes[%d]").set(record, 1, new JsonPrimitive("ABC"));
+      CompiledPath.compile("codes[%d]").set(record, 0, new JsonPrimitive("NPN"));
+
+      JsonArray descriptors = record.getAsJsonArray("tradeItemDescriptors");
+      assertEquals(2, descriptors.size());
+      assertEquals("CASE", descriptors.get(0).getAsJsonObject().get("__value__").getAsString());
+      assertEquals("Each", descriptors.get(1).getAsJsonObject().get("tradeItemDescriptorCode").getAsString());
+      assertEquals(PARSER.parse("[\"NPN\",\"ABC\"]"), record.get("codes"));
+   }
+
+   @Test
+   public void testMalformedPath() {
+      assertNull(CompiledPath.tryCompile(""));
+      assertNull(CompiledPath.tryCompile("a..b"));
+      assertNull(CompiledPath.tryCompile("a[x].b"));
+      assertNull(CompiledPath.tryCompile("a[0"));
+      assertNull(CompiledPath.tryCompile("[0].a"));
+   }
+
+   @Test
+   public void testTrimTrailing() {
+      CompiledPath path = CompiledPath.compile("data.contexts[2].attributes.gtin.values");
+      assertEquals("data.contexts[2].attributes", path.trimTrailing("gtin", "values").toString());
+      assertEquals("data", CompiledPath.compile("data.attributes").trimTrailing("attributes").toString());
+      assertNull(path.trimTrailing("weight", "values"));
+      assertNull(CompiledPath.compile("data.gtin.values[0]").trimTrailing("gtin", "values"));
+      assertNull(CompiledPath.compile("gtin.values").trimTrailing("gtin", "values"));
+   }
+}
@@ -1,31 +1,111 @@
 package com.riversand.connectors.gdsntransformation;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
 import com.riversand.rsconnect.common.config.FieldMapping;
 import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.helpers.GsonBuilder;
 import com.riversand.rsconnect.common.helpers.RSExtensionConnectContextSerializer;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 
 public class FieldMapGeneratorTest {
-   @Ignore
    @Test
    public void generate() throws Exception {
+      MappingConfigCache.getInstance().invalidateAll();
       InputStream contextStream = FieldMapGeneratorTest.class.getResourceAsStream("transformProfile.json");
       RSConnectContext connectContext = RSExtensionConnectContextSerializer.fromJson(null, contextStream);
       contextStream = FieldMapGeneratorTest.class.getResourceAsStream("transformProfile.json");
       RSConnectContext expectedContext = RSExtensionConnectContextSerializer.fromJson(null, contextStream);
       connectContext.getConnectProfile().getTransform().getFieldMap().removeAll(connectContext.getConnectProfile().getTransform().getFieldMap());
-      FieldMapGenerator fieldMapGenerator = new FieldMapGenerator(null, null, null, connectContext, null);
+      // the mappings config service returns the field map of the profile
+      JsonObject jsonData = new JsonObject();
+      jsonData.add("mappings", new JsonParser().parse(GsonBuilder.getGsonInstance().toJson(expectedContext.getConnectProfile().getTransform().getFieldMap())));
+      JsonObject mappingsConfig = new JsonObject();
+      mappingsConfig.add("jsonData", jsonData);
+      FieldMapGenerator fieldMapGenerator = new OfflineFieldMapGenerator(connectContext).withConfig("gdsn_static_mappings", mappingsConfig);
       List<FieldMapping> fieldMappingList = fieldMapGenerator.generate(null);
       connectContext.getConnectProfile().getTransform().getFieldMap().addAll(fieldMappingList);
       assertNotNull(fieldMappingList);
       assertEquals(expectedContext.toJson(), connectContext.toJson());
    }
+
+   @Test
+   public void testGenerateUsesCachedConfig() throws Exception {
+      MappingConfigCache.getInstance().invalidateAll();
+      RSConnectContext connectContext = loadContextWithRelationships("3");
+      AtomicInteger loads = new AtomicInteger();
+      FieldMapGenerator fieldMapGenerator = countingGenerator(connectContext, loads);
+
+      List<FieldMapping> first = fieldMapGenerator.generate(null);
+      List<FieldMapping> second = fieldMapGenerator.generate(null);
+      assertEquals(1, loads.get());
+      assertEquals(2, first.size());
+      assertEquals(2, second.size());
+      assertNotSame(first.get(0), second.get(0));
+      assertEquals(1, connectContext.getConnectProfile().getTransform().getRelationships().getFieldMap().size());
+
+      MappingConfigCache.getInstance().invalidate("connectords", "gdsn_static_mappings");
+      fieldMapGenerator.generate(null);
+      assertEquals(2, loads.get());
+      assertEquals(1, connectContext.getConnectProfile().getTransform().getRelationships().getFieldMap().size());
+   }
+
+   @Test
+   public void testGenerateWithoutVersionLoadsConfig() throws Exception {
+      MappingConfigCache.getInstance().invalidateAll();
+      AtomicInteger loads = new AtomicInteger();
+      FieldMapGenerator fieldMapGenerator = countingGenerator(loadContextWithRelationships(null), loads);
+      fieldMapGenerator.generate(null);
+      fieldMapGenerator.generate(null);
+      // no version: an edited config would not be noticed, so it is not cached by default
+      assertEquals(2, loads.get());
+   }
+
+   private static FieldMapGenerator countingGenerator(RSConnectContext connectContext, AtomicInteger loads) {
+      return new FieldMapGenerator(null, null, null, connectContext, null) {
+         @Override
+         protected JsonObject getConfigDataObject(String tenantId, String configId) {
+            loads.incrementAndGet();
+            return mappingsConfig();
+         }
+      };
+   }
+
+   /**
+    * @param configVersion mappings config version, null for none
+    */
+   private static RSConnectContext loadContextWithRelationships(String configVersion) {
+      JsonObject profile = new JsonParser().parse(new InputStreamReader(FieldMapGeneratorTest.class.getResourceAsStream("transformProfile.json"), StandardCharsets.UTF_8)).getAsJsonObject();
+      if (configVersion != null) {
+         profile.getAsJsonObject("connectProfile").getAsJsonObject("transform").getAsJsonObject("settings").getAsJsonObject("additionalSettings").addProperty("mappingConfigVersion", configVersion);
+      }
+      JsonObject relationships = new JsonObject();
+      relationships.add("fieldMap", new JsonArray());
+      profile.getAsJsonObject("connectProfile").getAsJsonObject("transform").add("relationships", relationships);
+      return RSExtensionConnectContextSerializer.fromJson(null, new ByteArrayInputStream(profile.toString().getBytes(StandardCharsets.UTF_8)));
+   }
+
+   private static JsonObject mappingsConfig() {
+      return new JsonParser().parse("{\"jsonData\": {"
+            + "\"mappings\": ["
+            + "{\"source\": \"@attr(gtin)\", \"destination\": \"@path(gtin)\", \"entityType\": \"tradeitem\", \"type\": \"string\"},"
+            + "{\"source\": \"@attr(weight)\", \"destination\": \"@path(weight)\", \"entityType\": \"tradeitem\", \"type\": \"string\", \"hasUOM\": true}],"
+            + "\"relationshipMappings\": ["
+            + "{\"source\": \"@attr(quantity)\", \"destination\": \"@path(quantity)\", \"entityType\": \"tradeitem\", \"type\": \"integer\"}]"
+            + "}}").getAsJsonObject();
+   }
 }
@@ -1,28 +1,66 @@
 package com.riversand.connectors.gdsntransformation;
 
+import java.io.ByteArrayInputStream;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.StringReader;
 import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
+import org.junit.Before;
 import org.junit.Test;
 
+import com.google.gson.JsonArray;
 import com.google.gson.JsonObject;
+import com.google.gson.stream.JsonReader;
 
+import com.riversand.connectors.extension.helpers.TransformerHelper;
 import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
 import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
 import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.helpers.ConnectIllegalArgumentException;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
 import com.riversand.rsconnect.common.helpers.GsonBuilder;
 import com.riversand.rsconnect.common.helpers.RSExtensionConnectContextSerializer;
 import com.riversand.rsconnect.interfaces.models.IRecord;
 import com.riversand.rsconnect.interfaces.models.JsonRecord;
+import com.riversand.rsconnect.interfaces.models.RdpStatusDetail;
 
 import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
 import static com.riversand.rsconnect.interfaces.constants.Constants.Services.RSCONNECT_SERVICE;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class GDSNTransformerTest {
    private static ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(GDSNTransformerTest.class);
+   private JsonObject entityObject;
+   private JsonObject profile;
+
+   @Before
+   public void setUp() {
+      entityObject = loadJson("sourceEntity.json");
+      profile = loadJson("transformProfile.json");
+   }
+
    @Test
    public void testTransform() {
       InputStream entityStream = GDSNTransformerTest.class.getResourceAsStream("sourceEntity.json");
@@ -43,4 +81,587 @@ public class GDSNTransformerTest {
       assertNotNull(outboundRecord);
       assertEquals(expectedTransformedEntity, ((JsonRecord) outboundRecord).getJsonObject());
    }
+
+   @Test
+   public void testTransformKeepsFieldMapUnchanged() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      String fieldMapBefore = GsonBuilder.getGsonInstance().toJson(connectContext.getConnectProfile().getTransform().getFieldMap());
+
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         IRecord first = gdsnTransformer.transform(new JsonRecord(entityObject, null), null);
+         IRecord second = gdsnTransformer.transform(new JsonRecord(entityObject, null), null);
+         assertEquals(((JsonRecord) first).getJsonObject(), ((JsonRecord) second).getJsonObject());
+      }
+      assertEquals(fieldMapBefore, GsonBuilder.getGsonInstance().toJson(connectContext.getConnectProfile().getTransform().getFieldMap()));
+   }
+
+   @Test
+   public void testTransformBatch() throws Exception {
+      List<JsonRecord> inboundRecords = new ArrayList<>();
+      for (int i = 0; i < 50; i++) {
+         JsonObject copy = entityObject.deepCopy();
+         JsonRecord.setValue(copy, "data.attributes.gtin.values[0].value", String.valueOf(i));
+         inboundRecords.add(new JsonRecord(copy, null));
+      }
+
+      RSConnectContext connectContext = createContext(profile);
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         gdsnTransformer.setBatchExecutor(executor, 4);
+         List<IRecord> outboundRecords = gdsnTransformer.transformBatch(inboundRecords, null);
+         assertEquals(inboundRecords.size(), outboundRecords.size());
+         for (int i = 0; i < outboundRecords.size(); i++) {
+            assertEquals(String.valueOf(i), outboundRecords.get(i).getValue("gtin"));
+         }
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testTransformLargeCollection() throws Exception {
+      JsonArray weights = new JsonArray();
+      for (int i = 0; i < 500; i++) {
+         JsonObject weight = new JsonObject();
+         weight.addProperty("value", String.valueOf(i));
+         weight.addProperty("uom", i % 2 == 0 ? "kgm" : "gm");
+         weights.add(weight);
+      }
+      JsonRecord.findObject(entityObject, "data.attributes.weights").add("values", weights);
+
+      RSConnectContext connectContext = createContext(profile);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), null)).getJsonObject();
+         JsonArray transformedWeights = outbound.getAsJsonArray("weights");
+         assertEquals(500, transformedWeights.size());
+         assertEquals("499", transformedWeights.get(499).getAsJsonObject().get("__value__").getAsString());
+         assertEquals("gm", transformedWeights.get(499).getAsJsonObject().get("measurementUnitCode").getAsString());
+      }
+   }
+
+   @Test
+   public void testProjectedTransform() throws Exception {
+      JsonObject unmapped = new JsonObject();
+      unmapped.add("values", new JsonArray());
+      JsonRecord.findObject(entityObject, "data.attributes").add("notMappedAttribute", unmapped);
+
+      RSConnectContext connectContext = createContext(profile);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         JsonObject expected = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), null)).getJsonObject();
+
+         IRecord projected = gdsnTransformer.transformProjected(new ByteArrayInputStream(entityObject.toString().getBytes(StandardCharsets.UTF_8)), null);
+         assertEquals(expected, ((JsonRecord) projected).getJsonObject());
+      }
+   }
+
+   @Test
+   public void testMetrics() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      TransformStatistics statistics = new TransformStatistics();
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         gdsnTransformer.setMetrics(statistics, 1);
+         gdsnTransformer.transform(new JsonRecord(entityObject, null), null);
+         gdsnTransformer.transform(new JsonRecord(entityObject, null), null);
+      }
+      assertEquals(2, statistics.getRecordCount());
+      assertTrue(statistics.getEntityTypeMillis().containsKey("tradeitem"));
+      assertTrue(statistics.getMappingMicros().containsKey("tradeitem:@attr(gtin)->@path(gtin)"));
+      assertTrue(statistics.getLatencyP99Micros() >= statistics.getLatencyP50Micros());
+   }
+
+   @Test
+   public void testContextMappings() throws Exception {
+      // brandName applies in US only, claim in US and DE
+      getTransform().getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(contextBrand)\", \"destination\": \"@path(brandName)\", \"entityType\": \"tradeitem\", \"type\": \"string\", \"contextKeys\": [\"US\"]}"));
+      getTransform().getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(contextClaim)\", \"destination\": \"@path(claim)\", \"entityType\": \"tradeitem\", \"type\": \"string\", \"contextKeys\": [\"US\", \"DE\"]}"));
+      JsonArray contexts = new JsonArray();
+      contexts.add(fromJson("{\"key\": \"US\"}"));
+      contexts.add(fromJson("{\"key\": \"FR\"}"));
+      entityObject.getAsJsonObject("data").add("contexts", contexts);
+      setSourceValue("@attr(contextBrand)", null, "self brand");
+      setSourceValue("@attr(contextClaim)", null, "self claim");
+      setSourceValue("@attr(contextBrand)", "US", "US brand");
+      setSourceValue("@attr(contextClaim)", "US", "US claim");
+      setSourceValue("@attr(contextBrand)", "FR", "FR brand");
+
+      RSConnectContext contextOnly = createContext(profile);
+      getTransform().getAsJsonObject("settings").addProperty("manageSelfDataInContext", true);
+      RSConnectContext withSelf = createContext(profile);
+
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(contextOnly)) {
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         // the FR context has no mappings, the self context is not read for a record with contexts
+         assertEquals("US brand", outbound.get("brandName").getAsString());
+         assertEquals("US claim", outbound.get("claim").getAsString());
+         assertNull(outbound.get("gtin"));
+      }
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(withSelf)) {
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         // brandName is released by its only context, claim still waits for DE and falls back to self
+         assertEquals("US brand", outbound.get("brandName").getAsString());
+         assertEquals("self claim", outbound.get("claim").getAsString());
+         assertNotNull(outbound.get("gtin"));
+      }
+   }
+
+   @Test
+   public void testParallelRelationships() throws Exception {
+      JsonArray children = new JsonArray();
+      for (int i = 0; i < 2000; i++) {
+         JsonObject child = new JsonObject();
+         JsonRecord.setValue(child, "attributes.quantity.values[0].value", String.valueOf(i));
+         JsonRecord.setValue(child, "relTo.data.attributes.gtin.values[0].value", "child" + i);
+         children.add(child);
+      }
+      JsonObject relationships = new JsonObject();
+      relationships.add("childTradeItem", children);
+      entityObject.getAsJsonObject("data").add("relationships", relationships);
+
+      getAdditionalSettings().addProperty("relationshipRootPath", "tradeItemHierarchy.children");
+      getTransform().add("relationships", fromJson("{\"fieldMap\": [{\"source\": \"@attr(quantity)\", "
+            + "\"destination\": \"@path(quantityOfNextLowerLevelTradeItem)\", \"entityType\": \"tradeitem\", \"type\": \"integer\"}]}"));
+      RSConnectContext connectContext = createContext(profile);
+
+      ExecutorService executor = Executors.newFixedThreadPool(4);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         gdsnTransformer.setBatchExecutor(executor, 4);
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), null)).getJsonObject();
+         JsonArray transformedChildren = JsonRecord.findArray(outbound, "tradeItemHierarchy.children.childTradeItem");
+         assertEquals(2000, transformedChildren.size());
+         for (int i = 0; i < transformedChildren.size(); i++) {
+            JsonObject child = transformedChildren.get(i).getAsJsonObject();
+            assertEquals(i, child.get("quantityOfNextLowerLevelTradeItem").getAsInt());
+            assertEquals("child" + i, child.get("gtin").getAsString());
+         }
+         assertNull(outbound.get("nextLowerLevelTradeItemInformation"));
+      } finally {
+         executor.shutdown();
+      }
+   }
+
+   @Test
+   public void testDeltaMode() throws Exception {
+      profile.getAsJsonObject("connectProfile").addProperty("id", "gdsn_delta_test");
+      JsonObject additionalSettings = getAdditionalSettings();
+      additionalSettings.addProperty("deltaMode", "changedOnly");
+      RSConnectContext changedOnlyContext = createContext(profile);
+      additionalSettings.addProperty("deltaMode", "reuse");
+      RSConnectContext reuseContext = createContext(profile);
+      additionalSettings.addProperty("deltaMode", "changedOnly");
+      profile.getAsJsonObject("executionContext").addProperty("tenantId", "gdsn_other_tenant");
+      RSConnectContext otherTenantContext = createContext(profile);
+      String tenantId = reuseContext.getExecutionContext().getTenantId();
+      TransformerRegistry.getInstance().invalidate(tenantId, "gdsn_delta_test");
+      TransformerRegistry.getInstance().invalidate("gdsn_other_tenant", "gdsn_delta_test");
+
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(changedOnlyContext)) {
+         IRecord first = gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null);
+         assertNotNull(first);
+         // audit data is not part of the fingerprint
+         entityObject.getAsJsonObject("properties").addProperty("modifiedDate", "2020-06-17T08:27:10.299-0500");
+         List<IRecord> unchanged = new ArrayList<>();
+         unchanged.add(new JsonRecord(entityObject.deepCopy(), null));
+         assertTrue(gdsnTransformer.transformBatch(unchanged, null).isEmpty());
+         // a single record is always returned
+         assertEquals(((JsonRecord) first).getJsonObject(), ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject());
+         List<IRecord> published = new ArrayList<>();
+         try (TransformPipeline pipeline = gdsnTransformer.newPipeline(published::addAll, null)) {
+            pipeline.submit(new JsonRecord(entityObject.deepCopy(), null));
+         }
+         assertTrue(published.isEmpty());
+
+         JsonRecord.setValue(entityObject, "data.attributes.gtin.values[0].value", "00000000000017");
+         JsonObject changed = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         assertEquals("00000000000017", changed.get("gtin").getAsString());
+
+         List<IRecord> batch = new ArrayList<>();
+         batch.add(new JsonRecord(entityObject.deepCopy(), null));
+         assertTrue(gdsnTransformer.transformBatch(batch, null).isEmpty());
+      }
+
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(reuseContext)) {
+         JsonObject reused = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         assertEquals("00000000000017", reused.get("gtin").getAsString());
+         // the cached output is handed out as a copy
+         reused.addProperty("gtin", "changed downstream");
+         JsonObject again = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         assertEquals("00000000000017", again.get("gtin").getAsString());
+      }
+
+      // another tenant with the same profile id does not see the outputs of the first
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(otherTenantContext)) {
+         assertNotNull(gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null));
+      }
+
+      // invalidating the compiled profile forgets the exported outputs too
+      TransformerRegistry.getInstance().invalidate(tenantId, "gdsn_delta_test");
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(changedOnlyContext)) {
+         assertNotNull(gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null));
+      }
+   }
+
+   @Test
+   public void testSpillingBatchBuffer() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      Path directory = Files.createTempDirectory("gdsn-spill-test");
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         Iterator<IRecord> outbound;
+         // a budget of a few records, the rest of the batch is spilled
+         try (SpillingBatchBuffer buffer = new SpillingBatchBuffer(gdsnTransformer, directory, 64 * 1024, 7)) {
+            for (int i = 0; i < 50; i++) {
+               JsonObject entity = entityObject.deepCopy();
+               JsonRecord.setValue(entity, "data.attributes.gtin.values[0].value", String.format("%014d", i));
+               buffer.add(new JsonRecord(entity, null));
+            }
+            assertEquals(50, buffer.size());
+            assertTrue(buffer.getSpilledBytes() > 0);
+            outbound = buffer.transform();
+            for (int i = 0; i < 49; i++) {
+               JsonObject outboundObject = ((JsonRecord) outbound.next()).getJsonObject();
+               assertEquals(String.format("%014d", i), outboundObject.get("gtin").getAsString());
+            }
+            assertTrue(outbound.hasNext());
+         }
+         // the buffers are freed on close, the remaining record cannot be read anymore
+         try {
+            outbound.next();
+            fail("The records of a closed buffer cannot be read");
+         } catch (IllegalStateException ex) {
+            // expected
+         }
+         try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+         }
+      } finally {
+         Files.deleteIfExists(directory);
+      }
+   }
+
+   @Test
+   public void testFailingMappingIsIsolated() throws Exception {
+      JsonObject transform = getTransform();
+      JsonObject additionalSettings = getAdditionalSettings();
+      additionalSettings.addProperty("fieldErrorReportLimit", 2);
+      additionalSettings.addProperty("mappingFailureThreshold", 3);
+      // no destination: fails on every record, ahead of all other mappings
+      JsonArray fieldMap = new JsonArray();
+      fieldMap.add(fromJson("{\"source\": \"@attr(gtin)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+      fieldMap.addAll(transform.getAsJsonArray("fieldMap"));
+      transform.add("fieldMap", fieldMap);
+      RSConnectContext connectContext = createContext(profile);
+
+      TransformStatistics statistics = new TransformStatistics();
+      List<RdpStatusDetail> messages = new ArrayList<>();
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         gdsnTransformer.setMetrics(statistics, 1);
+         for (int i = 0; i < 4; i++) {
+            RdpStatusDetail recordMessages = new RdpStatusDetail();
+            messages.add(recordMessages);
+            JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), recordMessages)).getJsonObject();
+            assertNotNull(outbound.get("gtin"));
+         }
+      }
+      // the first two failures are reported, one message each
+      for (int i = 0; i < 2; i++) {
+         assertEquals(1, messages.get(i).getMessages().size());
+         String message = String.valueOf(messages.get(i).getMessages().get(0));
+         assertTrue(message.contains(RSC_7273));
+         JsonObject error = GsonBuilder.getGsonInstance().fromJson(message.substring(message.indexOf('{')), JsonObject.class);
+         assertEquals("tradeitem:@attr(gtin)->null", error.get("mapping").getAsString());
+         assertEquals(entityObject.get("id").getAsString(), error.get("entityId").getAsString());
+         assertEquals(ConnectIllegalArgumentException.class.getName(), error.get("error").getAsString());
+         assertEquals(i + 1, error.get("failures").getAsInt());
+      }
+      // the third failure is over the report limit of the minute and disables the mapping
+      assertTrue(messages.get(2).getMessages().isEmpty());
+      // the fourth record skips the mapping
+      assertTrue(messages.get(3).getMessages().isEmpty());
+      assertEquals(Long.valueOf(3), statistics.getMappingFailures().get("tradeitem:@attr(gtin)->null"));
+   }
+
+   @Test
+   public void testMappingValidation() throws Exception {
+      JsonObject transform = getTransform();
+      getAdditionalSettings().addProperty("warmUpRecords", "3");
+      RSConnectContext validContext = createContext(profile);
+      assertTrue(GDSNTransformer.validateMappings(validContext.getConnectProfile().getTransform()).isEmpty());
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(validContext)) {
+         assertNotNull(((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), null)).getJsonObject().get("gtin"));
+      }
+
+      getAdditionalSettings().addProperty("mappingValidation", "fail");
+      transform.getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(gtin)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+      transform.getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(brand)\", \"destination\": \"@path(brandName\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+      RSConnectContext invalidContext = createContext(profile);
+      assertEquals(2, GDSNTransformer.validateMappings(invalidContext.getConnectProfile().getTransform()).size());
+      try {
+         new GDSNTransformer(invalidContext);
+         fail("invalid mappings must be refused");
+      } catch (ConnectIllegalArgumentException ex) {
+         assertTrue(ex.getMessage().contains("destination cannot be null"));
+         assertTrue(ex.getMessage().contains("malformed @path macro"));
+      }
+   }
+
+   @Test
+   public void testNestedAttribute() throws Exception {
+      JsonArray fieldMap = getTransform().getAsJsonArray("fieldMap");
+      fieldMap.add(fromJson("{\"source\": \"@attr(nutrients)\", \"destination\": \"@path(nutrientHeader.nutrientDetail[%d])\", \"entityType\": \"tradeitem\", \"type\": \"nested\"}"));
+      fieldMap.add(fromJson("{\"source\": \"@attr(nutrientTypeCode)\", \"destination\": \"@path(nutrientHeader.nutrientDetail[%d].nutrientTypeCode)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+      fieldMap.add(fromJson("{\"source\": \"@attr(quantityContained)\", \"destination\": \"@path(nutrientHeader.nutrientDetail[%d].quantityContained)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+      RSConnectContext connectContext = createContext(profile);
+
+      JsonArray rows = new JsonArray();
+      rows.add(fromJson("{\"nutrientTypeCode\": {\"values\": [{\"value\": \"FAT\"}]}, \"quantityContained\": {\"values\": [{\"value\": \"12\"}]}}"));
+      rows.add(fromJson("{\"quantityContained\": {\"values\": []}}"));
+      rows.add(fromJson("{\"nutrientTypeCode\": {\"values\": [{\"value\": \"SUGAR\"}]}}"));
+      JsonObject nutrients = new JsonObject();
+      nutrients.add("group", rows);
+      entityObject.getAsJsonObject("data").getAsJsonObject("attributes").add("nutrients", nutrients);
+      // an entity level attribute of the same name is not read by the child mapping
+      JsonRecord.setValue(entityObject, "data.attributes.nutrientTypeCode.values[0].value", "ENTITY");
+
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject, null), null)).getJsonObject();
+         JsonArray details = outbound.getAsJsonObject("nutrientHeader").getAsJsonArray("nutrientDetail");
+         assertEquals(3, details.size());
+         assertEquals("FAT", details.get(0).getAsJsonObject().get("nutrientTypeCode").getAsString());
+         assertEquals("12", details.get(0).getAsJsonObject().get("quantityContained").getAsString());
+         // the row without values keeps its position
+         assertEquals(0, details.get(1).getAsJsonObject().size());
+         assertEquals("SUGAR", details.get(2).getAsJsonObject().get("nutrientTypeCode").getAsString());
+         assertNull(details.get(2).getAsJsonObject().get("quantityContained"));
+      }
+   }
+
+   @Test
+   public void testCompiledProfileIsShared() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      String tenantId = connectContext.getExecutionContext().getTenantId();
+      String profileId = connectContext.getConnectProfile().getId();
+      TransformerRegistry.getInstance().invalidate(tenantId, profileId);
+      try (GDSNTransformer first = new GDSNTransformer(connectContext);
+           GDSNTransformer second = new GDSNTransformer(createContext(profile))) {
+         assertSame(first.getCompiledProfile(), second.getCompiledProfile());
+
+         // changed mappings are compiled again
+         getTransform().getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(brand)\", \"destination\": \"@path(brandName)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+         try (GDSNTransformer changed = new GDSNTransformer(createContext(profile))) {
+            assertNotSame(first.getCompiledProfile(), changed.getCompiledProfile());
+            TransformerRegistry.getInstance().invalidate(tenantId, profileId);
+            try (GDSNTransformer invalidated = new GDSNTransformer(createContext(profile))) {
+               assertNotSame(changed.getCompiledProfile(), invalidated.getCompiledProfile());
+            }
+         }
+      }
+   }
+
+   @Test
+   public void testCompiledProfileIsKeyedByVersion() throws Exception {
+      getAdditionalSettings().addProperty("mappingConfigVersion", "1");
+      RSConnectContext connectContext = createContext(profile);
+      String tenantId = connectContext.getExecutionContext().getTenantId();
+      String profileId = connectContext.getConnectProfile().getId();
+      TransformerRegistry.getInstance().invalidate(tenantId, profileId);
+      try (GDSNTransformer first = new GDSNTransformer(connectContext)) {
+         // the version identifies the mappings, they are not compared
+         getTransform().getAsJsonArray("fieldMap").add(fromJson("{\"source\": \"@attr(brand)\", \"destination\": \"@path(brandName)\", \"entityType\": \"tradeitem\", \"type\": \"string\"}"));
+         try (GDSNTransformer sameVersion = new GDSNTransformer(createContext(profile))) {
+            assertSame(first.getCompiledProfile(), sameVersion.getCompiledProfile());
+         }
+
+         getAdditionalSettings().addProperty("mappingConfigVersion", "2");
+         try (GDSNTransformer newVersion = new GDSNTransformer(createContext(profile))) {
+            assertNotSame(first.getCompiledProfile(), newVersion.getCompiledProfile());
+         }
+      } finally {
+         TransformerRegistry.getInstance().invalidate(tenantId, profileId);
+      }
+   }
+
+   @Test
+   public void testTransformPipeline() throws Exception {
+      profile.getAsJsonObject("connectProfile").getAsJsonObject("publish").getAsJsonObject("format").addProperty("batchSize", 7);
+      JsonObject additionalSettings = getAdditionalSettings();
+      additionalSettings.addProperty("pipelineWorkers", 3);
+      // a small queue, the collector has to wait for the workers
+      additionalSettings.addProperty("pipelineQueueCapacity", 4);
+      RSConnectContext connectContext = createContext(profile);
+
+      List<List<IRecord>> batches = Collections.synchronizedList(new ArrayList<>());
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         TransformPipeline pipeline = gdsnTransformer.newPipeline(batches::add, null);
+         for (int i = 0; i < 30; i++) {
+            JsonObject entity = entityObject.deepCopy();
+            JsonRecord.setValue(entity, "data.attributes.gtin.values[0].value", String.format("%014d", i));
+            pipeline.submit(new JsonRecord(entity, null));
+         }
+         pipeline.flush();
+         assertEquals(0, pipeline.getPending());
+         assertEquals(5, batches.size());
+         for (int i = 30; i < 50; i++) {
+            JsonObject entity = entityObject.deepCopy();
+            JsonRecord.setValue(entity, "data.attributes.gtin.values[0].value", String.format("%014d", i));
+            pipeline.submit(new JsonRecord(entity, null));
+         }
+         // closing the transformer drains the pipeline
+      }
+      Set<String> gtins = new HashSet<>();
+      for (List<IRecord> batch : batches) {
+         assertTrue(batch.size() <= 7);
+         for (IRecord record : batch) {
+            gtins.add(((JsonRecord) record).getJsonObject().get("gtin").getAsString());
+         }
+      }
+      assertEquals(50, gtins.size());
+      // the partial batches of the flush and of the close
+      assertEquals(8, batches.size());
+      assertEquals(2, batches.stream().filter(batch -> batch.size() < 7).count());
+   }
+
+   @Test(timeout = 30000)
+   public void testTransformPipelineParksIdleThreads() throws Exception {
+      getAdditionalSettings().addProperty("pipelineWorkers", 2);
+      RSConnectContext connectContext = createContext(profile);
+      List<IRecord> published = Collections.synchronizedList(new ArrayList<>());
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         TransformPipeline pipeline = gdsnTransformer.newPipeline(published::addAll, null);
+         awaitPipelineThreadsParked();
+         pipeline.submit(new JsonRecord(entityObject.deepCopy(), null));
+         pipeline.flush();
+         assertEquals(1, published.size());
+         awaitPipelineThreadsParked();
+         pipeline.close();
+      }
+   }
+
+   private static void awaitPipelineThreadsParked() throws InterruptedException {
+      while (true) {
+         long running = Thread.getAllStackTraces().keySet().stream()
+               .filter(thread -> thread.getName().startsWith("gdsn-pipeline-") && thread.getState() != Thread.State.WAITING)
+               .count();
+         if (running == 0) {
+            return;
+         }
+         Thread.sleep(10);
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testTransformPipelineFailure() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         // an error of the publisher is reported and does not leave the pipeline waiting for the batch
+         TransformPipeline failing = gdsnTransformer.newPipeline(batch -> {
+            throw new Error("publisher failed");
+         }, null);
+         TransformPipeline other = gdsnTransformer.newPipeline(batch -> { }, null);
+         failing.submit(new JsonRecord(entityObject.deepCopy(), null));
+         other.submit(new JsonRecord(entityObject.deepCopy(), null));
+         try {
+            failing.flush();
+            fail("The publisher error is rethrown");
+         } catch (ConnectRuntimeException ex) {
+            assertTrue(ex.getMessage().contains("publisher failed"));
+         }
+         assertEquals(0, failing.getPending());
+         try {
+            gdsnTransformer.close();
+            fail("The failure of the pipeline is rethrown by the transformer");
+         } catch (ConnectRuntimeException ex) {
+            assertTrue(ex.getMessage().contains("publisher failed"));
+         }
+         // the other pipeline is closed too
+         assertEquals(0, other.getPending());
+         try {
+            other.submit(new JsonRecord(entityObject.deepCopy(), null));
+            fail("Records cannot be submitted to a closed pipeline");
+         } catch (ConnectRuntimeException ex) {
+            assertTrue(ex.getMessage().contains("closed pipeline"));
+         }
+      }
+   }
+
+   @Test(timeout = 30000)
+   public void testTransformPipelineCloseRace() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         for (int round = 0; round < 20; round++) {
+            AtomicLong published = new AtomicLong();
+            AtomicLong accepted = new AtomicLong();
+            TransformPipeline pipeline = gdsnTransformer.newPipeline(batch -> published.addAndGet(batch.size()), null);
+            ExecutorService submitters = Executors.newFixedThreadPool(4);
+            try {
+               List<Future<?>> futures = new ArrayList<>();
+               for (int t = 0; t < 4; t++) {
+                  futures.add(submitters.submit(() -> {
+                     try {
+                        while (true) {
+                           pipeline.submit(new JsonRecord(entityObject.deepCopy(), null));
+                           accepted.incrementAndGet();
+                        }
+                     } catch (ConnectRuntimeException ex) {
+                        // the pipeline was closed
+                     }
+                  }));
+               }
+               Thread.sleep(2);
+               pipeline.close();
+               for (Future<?> future : futures) {
+                  future.get();
+               }
+            } finally {
+               submitters.shutdown();
+            }
+            // every accepted record is published before the close returns
+            assertEquals(accepted.get(), published.get());
+         }
+      }
+   }
+
+   @Test
+   public void testSourceProjection() throws Exception {
+      RSConnectContext connectContext = createContext(profile);
+      try (GDSNTransformer gdsnTransformer = new GDSNTransformer(connectContext)) {
+         SourceProjection projection = gdsnTransformer.getSourceProjection();
+         JsonObject projected = projection.project(entityObject);
+         Set<String> attributes = projection.getAttributes(entityObject.get("type").getAsString());
+         assertTrue(attributes.contains("gtin"));
+         assertTrue(projected.getAsJsonObject("data").getAsJsonObject("attributes").size() < entityObject.getAsJsonObject("data").getAsJsonObject("attributes").size());
+         assertTrue(attributes.containsAll(projected.getAsJsonObject("data").getAsJsonObject("attributes").keySet()));
+         // the streaming reader prunes the same parts without building them
+         assertEquals(projected, projection.read(new JsonReader(new StringReader(entityObject.toString()))));
+
+         JsonObject outbound = ((JsonRecord) gdsnTransformer.transform(new JsonRecord(entityObject.deepCopy(), null), null)).getJsonObject();
+         assertEquals(outbound, ((JsonRecord) gdsnTransformer.transform(new JsonRecord(projected, null), null)).getJsonObject());
+      }
+   }
+
+   /**
+    * @param contextKey source context, null for self
+    */
+   private void setSourceValue(String source, String contextKey, String value) {
+      JsonRecord.setValue(entityObject, TransformerHelper.getSourceFieldInContext(source, contextKey, "value", 0), value);
+   }
+
+   private static JsonObject loadJson(String resource) {
+      InputStream stream = GDSNTransformerTest.class.getResourceAsStream(resource);
+      return GsonBuilder.getGsonInstance().fromJson(new InputStreamReader(stream, Charset.defaultCharset()), JsonObject.class);
+   }
+
+   private static JsonObject fromJson(String json) {
+      return GsonBuilder.getGsonInstance().fromJson(json, JsonObject.class);
+   }
+
+   private static RSConnectContext createContext(JsonObject profile) {
+      return RSExtensionConnectContextSerializer.fromJson(null, new ByteArrayInputStream(profile.toString().getBytes(StandardCharsets.UTF_8)));
+   }
+
+   private JsonObject getTransform() {
+      return profile.getAsJsonObject("connectProfile").getAsJsonObject("transform");
+   }
+
+   private JsonObject getAdditionalSettings() {
+      return getTransform().getAsJsonObject("settings").getAsJsonObject("additionalSettings");
+   }
 }
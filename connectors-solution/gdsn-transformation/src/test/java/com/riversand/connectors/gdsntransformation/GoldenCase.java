@@ -0,0 +1,136 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import com.riversand.rsconnect.common.config.FieldMapping;
+import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.helpers.RSExtensionConnectContextSerializer;
+
+/**
+ * A directory holding a transform profile, the inbound entities and the expected GDSN records:
+ * <ul>
+ * <li>{@code profile.json}: connect context with the transform profile</li>
+ * <li>{@code input.json}: an RSJSON entity, or an array of entities</li>
+ * <li>{@code expected.json}: the expected record, or an array of records in input order</li>
+ * <li>{@code mappingConfig.json}: optional mappings config object. The field map of the profile is then generated
+ * by {@link OfflineFieldMapGenerator}, as the connector does with the config service.</li>
+ * <li>{@code case.json}: optional object naming other files for the {@code profile}, {@code input}, {@code expected}
+ * and {@code mappingConfig} parts, relative to the directory, so a case can reuse the fixtures of the other tests.</li>
+ * </ul>
+ * Records are compared in their pretty printed form, so a changed property order or number format is a difference.
+ */
+final class GoldenCase {
+   static final String PROFILE = "profile.json";
+   static final String INPUT = "input.json";
+   static final String EXPECTED = "expected.json";
+   static final String MAPPING_CONFIG = "mappingConfig.json";
+   static final String CASE = "case.json";
+   private static final Gson PRINTER = new GsonBuilder().setPrettyPrinting().serializeNulls().disableHtmlEscaping().create();
+
+   private final Path directory;
+   private final JsonObject files;
+   private final JsonObject profile;
+   private final List<JsonObject> inputs = new ArrayList<>();
+   private final JsonObject mappingConfig;
+
+   GoldenCase(Path directory) throws IOException {
+      this.directory = directory;
+      Path caseFile = directory.resolve(CASE);
+      this.files = Files.exists(caseFile) ? read(caseFile).getAsJsonObject() : new JsonObject();
+      this.profile = read(resolve(PROFILE)).getAsJsonObject();
+      JsonElement input = read(resolve(INPUT));
+      if (input.isJsonArray()) {
+         input.getAsJsonArray().forEach(entity -> inputs.add(entity.getAsJsonObject()));
+      } else {
+         inputs.add(input.getAsJsonObject());
+      }
+      Path mappingConfigFile = resolve(MAPPING_CONFIG);
+      this.mappingConfig = Files.exists(mappingConfigFile) ? read(mappingConfigFile).getAsJsonObject() : null;
+   }
+
+   static boolean isCase(Path directory) {
+      return Files.isRegularFile(directory.resolve(CASE)) || Files.isRegularFile(directory.resolve(PROFILE)) && Files.isRegularFile(directory.resolve(INPUT));
+   }
+
+   /**
+    * @param name default file of the part, also the part name in {@code case.json} without the extension
+    */
+   private Path resolve(String name) {
+      String part = name.substring(0, name.lastIndexOf('.'));
+      return files.has(part) ? directory.resolve(files.get(part).getAsString()).normalize() : directory.resolve(name);
+   }
+
+   String getName() {
+      return directory.getFileName().toString();
+   }
+
+   /**
+    * @return copies of the inbound entities
+    */
+   List<JsonObject> getInputs() {
+      List<JsonObject> copies = new ArrayList<>(inputs.size());
+      inputs.forEach(entity -> copies.add(entity.deepCopy()));
+      return copies;
+   }
+
+   /**
+    * @return connect context of the profile, with the generated field map when the case has a mappings config
+    */
+   RSConnectContext createContext() throws Exception {
+      RSConnectContext connectContext = RSExtensionConnectContextSerializer.fromJson(null, new ByteArrayInputStream(profile.toString().getBytes(StandardCharsets.UTF_8)));
+      if (mappingConfig != null) {
+         String configId = connectContext.getConnectProfile().getTransform().getSettings().getAdditionalSetting("mappingConfig");
+         List<FieldMapping> fieldMap = new OfflineFieldMapGenerator(connectContext).withConfig(configId, mappingConfig).generate(null);
+         connectContext.getConnectProfile().getTransform().getFieldMap().addAll(fieldMap);
+      }
+      return connectContext;
+   }
+
+   /**
+    * @return expected records in their compared form, null when the case has no expected output yet
+    */
+   String getExpected() throws IOException {
+      Path expectedFile = resolve(EXPECTED);
+      return Files.exists(expectedFile) ? print(read(expectedFile)) : null;
+   }
+
+   /**
+    * Record the outbound records as the expected output of the case.
+    */
+   void writeExpected(List<JsonObject> records) throws IOException {
+      Files.write(resolve(EXPECTED), (print(records) + "\n").getBytes(StandardCharsets.UTF_8));
+   }
+
+   /**
+    * @return records in their compared form, a single record unwrapped like the input
+    */
+   String print(List<JsonObject> records) {
+      if (inputs.size() == 1 && records.size() == 1) {
+         return print(records.get(0));
+      }
+      JsonArray array = new JsonArray();
+      records.forEach(array::add);
+      return print(array);
+   }
+
+   static String print(JsonElement element) {
+      return PRINTER.toJson(element);
+   }
+
+   private static JsonElement read(Path file) throws IOException {
+      return new JsonParser().parse(new String(Files.readAllBytes(file), StandardCharsets.UTF_8));
+   }
+}
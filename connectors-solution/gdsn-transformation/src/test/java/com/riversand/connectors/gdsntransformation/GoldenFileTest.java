@@ -0,0 +1,161 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.io.ByteArrayInputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManager;
+import com.riversand.dataplatform.ps.diagnosticmanager.ProfilerManagerLogger;
+import com.riversand.rsconnect.interfaces.models.IRecord;
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+import static com.riversand.connectors.extension.Constants.LogCodes.RSC_7273;
+import static com.riversand.rsconnect.interfaces.constants.Constants.Services.RSCONNECT_SERVICE;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs every {@link GoldenCase} below the {@code golden} test resources through the tree, projected and batch entry
+ * points of {@link GDSNTransformer} and compares the records with the expected output. Each case reports its
+ * throughput. System properties:
+ * <ul>
+ * <li>{@code gdsn.golden.dir}: directory of the cases to run instead of the test resources, e.g. exported production
+ * profiles</li>
+ * <li>{@code gdsn.golden.iterations}: times the inputs of a case are transformed for the throughput, defaults to 20</li>
+ * <li>{@code gdsn.golden.update}: {@code true} to write the current output as the expected output of the cases</li>
+ * </ul>
+ */
+@RunWith(Parameterized.class)
+public class GoldenFileTest {
+   private static final ProfilerManagerLogger pmLogger = ProfilerManager.getLogger(GoldenFileTest.class);
+   private static final int DIFF_CONTEXT_LINES = 3;
+
+   private final Path caseDirectory;
+
+   public GoldenFileTest(String name, Path caseDirectory) {
+      this.caseDirectory = caseDirectory;
+   }
+
+   @Parameterized.Parameters(name = "{0}")
+   public static Collection<Object[]> cases() throws Exception {
+      Path root = getCasesDirectory();
+      try (Stream<Path> directories = Files.list(root)) {
+         List<Object[]> cases = directories.filter(GoldenCase::isCase).sorted().map(directory -> new Object[]{directory.getFileName().toString(), directory}).collect(Collectors.toList());
+         if (cases.isEmpty()) {
+            throw new IllegalStateException("No golden cases in " + root);
+         }
+         return cases;
+      }
+   }
+
+   private static Path getCasesDirectory() throws URISyntaxException {
+      String directory = System.getProperty("gdsn.golden.dir");
+      if (directory != null) {
+         return Paths.get(directory);
+      }
+      URL resource = GoldenFileTest.class.getResource("golden");
+      assertNotNull("golden test resources are missing", resource);
+      return Paths.get(resource.toURI());
+   }
+
+   @Test
+   public void testCase() throws Exception {
+      GoldenCase goldenCase = new GoldenCase(caseDirectory);
+      String expected = goldenCase.getExpected();
+      try (GDSNTransformer transformer = new GDSNTransformer(goldenCase.createContext())) {
+         List<JsonObject> outbound = transformTree(transformer, goldenCase.getInputs());
+         if (Boolean.getBoolean("gdsn.golden.update")) {
+            goldenCase.writeExpected(outbound);
+            return;
+         }
+         if (expected == null) {
+            fail(goldenCase.getName() + ": no " + GoldenCase.EXPECTED + ", run with -Dgdsn.golden.update=true to record it");
+         }
+         assertSame(goldenCase.getName() + " (tree)", expected, goldenCase.print(outbound));
+         assertSame(goldenCase.getName() + " (projected)", expected, goldenCase.print(transformProjected(transformer, goldenCase.getInputs())));
+         assertSame(goldenCase.getName() + " (batch)", expected, goldenCase.print(toObjects(transformer.transformBatch(toRecords(goldenCase.getInputs()), null))));
+         reportThroughput(goldenCase, transformer);
+      }
+   }
+
+   private static List<JsonObject> transformTree(GDSNTransformer transformer, List<JsonObject> inputs) {
+      List<JsonObject> outbound = new ArrayList<>(inputs.size());
+      for (JsonObject entity : inputs) {
+         outbound.add(((JsonRecord) transformer.transform(new JsonRecord(entity, null), null)).getJsonObject());
+      }
+      return outbound;
+   }
+
+   private static List<JsonObject> transformProjected(GDSNTransformer transformer, List<JsonObject> inputs) throws Exception {
+      List<JsonObject> outbound = new ArrayList<>(inputs.size());
+      for (JsonObject entity : inputs) {
+         IRecord outboundRecord = transformer.transformProjected(new ByteArrayInputStream(entity.toString().getBytes(StandardCharsets.UTF_8)), null);
+         outbound.add(((JsonRecord) outboundRecord).getJsonObject());
+      }
+      return outbound;
+   }
+
+   private static List<JsonRecord> toRecords(List<JsonObject> entities) {
+      return entities.stream().map(entity -> new JsonRecord(entity, null)).collect(Collectors.toList());
+   }
+
+   private static List<JsonObject> toObjects(List<IRecord> records) {
+      return records.stream().map(record -> ((JsonRecord) record).getJsonObject()).collect(Collectors.toList());
+   }
+
+   private static void reportThroughput(GoldenCase goldenCase, GDSNTransformer transformer) {
+      int iterations = Integer.getInteger("gdsn.golden.iterations", 20);
+      List<List<JsonObject>> inputs = new ArrayList<>(iterations);
+      for (int i = 0; i < iterations; i++) {
+         inputs.add(goldenCase.getInputs());
+      }
+      long start = System.nanoTime();
+      int records = 0;
+      for (List<JsonObject> iteration : inputs) {
+         records += transformTree(transformer, iteration).size();
+      }
+      long elapsed = Math.max(1, System.nanoTime() - start);
+      pmLogger.info("", RSCONNECT_SERVICE, RSC_7273, String.format("%s: %d records in %.1f ms, %.0f records/s", goldenCase.getName(), records, elapsed / 1e6, records * 1e9 / elapsed));
+   }
+
+   /**
+    * Fail with the first differing line of the records and the lines around it.
+    */
+   private static void assertSame(String message, String expected, String actual) {
+      if (expected.equals(actual)) {
+         return;
+      }
+      String[] expectedLines = expected.split("\n", -1);
+      String[] actualLines = actual.split("\n", -1);
+      int line = 0;
+      while (line < expectedLines.length && line < actualLines.length && expectedLines[line].equals(actualLines[line])) {
+         line++;
+      }
+      StringBuilder diff = new StringBuilder(message).append(": output differs at line ").append(line + 1).append('\n');
+      for (int i = Math.max(0, line - DIFF_CONTEXT_LINES); i < line; i++) {
+         diff.append("  ").append(expectedLines[i]).append('\n');
+      }
+      for (int i = line; i < Math.min(expectedLines.length, line + DIFF_CONTEXT_LINES); i++) {
+         diff.append("- ").append(expectedLines[i]).append('\n');
+      }
+      for (int i = line; i < Math.min(actualLines.length, line + DIFF_CONTEXT_LINES); i++) {
+         diff.append("+ ").append(actualLines[i]).append('\n');
+      }
+      fail(diff.toString());
+   }
+}
@@ -0,0 +1,31 @@
+package com.riversand.connectors.gdsntransformation;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class LatencyHistogramTest {
+   @Test
+   public void testPercentiles() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      for (int i = 0; i < 99; i++) {
+         histogram.record(1_000);
+      }
+      histogram.record(1_000_000);
+      assertEquals(100, histogram.getCount());
+      assertEquals(1023, histogram.getPercentileNanos(50));
+      assertEquals(1023, histogram.getPercentileNanos(99));
+      assertEquals((1 << 20) - 1, histogram.getPercentileNanos(100));
+   }
+
+   @Test
+   public void testEmptyAndReset() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(0, histogram.getPercentileNanos(99));
+      histogram.record(0);
+      histogram.record(-5);
+      assertEquals(0, histogram.getPercentileNanos(100));
+      histogram.reset();
+      assertEquals(0, histogram.getCount());
+   }
+}
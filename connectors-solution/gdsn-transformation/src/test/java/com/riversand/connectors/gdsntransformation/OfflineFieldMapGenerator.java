@@ -0,0 +1,38 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.google.gson.JsonObject;
+
+import com.riversand.rsconnect.common.config.RSConnectContext;
+import com.riversand.rsconnect.common.helpers.ConnectRuntimeException;
+
+/**
+ * Field map generator serving the mappings config objects from memory instead of the config service, so mappings can
+ * be generated without a tenant.
+ */
+public class OfflineFieldMapGenerator extends FieldMapGenerator {
+   private final Map<String, JsonObject> configs = new HashMap<>();
+
+   public OfflineFieldMapGenerator(RSConnectContext connectContext) {
+      super(null, null, null, connectContext, null);
+   }
+
+   /**
+    * @param dataObject config object as the config service returns it, with the mappings under {@code jsonData}
+    */
+   public OfflineFieldMapGenerator withConfig(String configId, JsonObject dataObject) {
+      configs.put(configId, dataObject);
+      return this;
+   }
+
+   @Override
+   protected JsonObject getConfigDataObject(String tenantId, String configId) {
+      JsonObject dataObject = configs.get(configId);
+      if (dataObject == null) {
+         throw new ConnectRuntimeException("RSC7820", "No offline mappings config " + configId);
+      }
+      return dataObject;
+   }
+}
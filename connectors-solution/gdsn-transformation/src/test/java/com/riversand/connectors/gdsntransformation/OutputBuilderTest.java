@@ -0,0 +1,42 @@
+package com.riversand.connectors.gdsntransformation;
+
+import org.junit.Test;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+
+import static org.junit.Assert.assertEquals;
+
+public class OutputBuilderTest {
+   @Test
+   public void testBuildsSameTreeAsPathSet() {
+      CompiledPath description = CompiledPath.compile("tradeItemDescriptionInformation.descriptionShort[%d]");
+      CompiledPath weight = CompiledPath.compile("tradeItemMeasurements.netWeight");
+      CompiledPath height = CompiledPath.compile("tradeItemMeasurements.height");
+      JsonObject expected = new JsonObject();
+      JsonObject built = new JsonObject();
+      OutputBuilder builder = new OutputBuilder().reset(built);
+      for (int index = 0; index < 2; index++) {
+         description.child("languageCode").set(expected, index, new JsonPrimitive("en-US"));
+         description.child("__value__").set(expected, index, new JsonPrimitive("value" + index));
+         builder.set(description.child("languageCode"), index, new JsonPrimitive("en-US"));
+         builder.set(description.child("__value__"), index, new JsonPrimitive("value" + index));
+      }
+      weight.child("measurementUnitCode").set(expected, 0, new JsonPrimitive("KGM"));
+      height.set(expected, 0, new JsonPrimitive(10));
+      builder.set(weight.child("measurementUnitCode"), 0, new JsonPrimitive("KGM"));
+      builder.set(height, 0, new JsonPrimitive(10));
+      assertEquals(expected, built);
+   }
+
+   @Test
+   public void testReplacedParentIsForgotten() {
+      JsonObject built = new JsonObject();
+      OutputBuilder builder = new OutputBuilder().reset(built);
+      builder.set(CompiledPath.compile("a.b.c"), 0, new JsonPrimitive(1));
+      builder.set(CompiledPath.compile("a.b"), 0, new JsonPrimitive(2));
+      builder.set(CompiledPath.compile("a.b.d"), 0, new JsonPrimitive(3));
+      assertEquals(3, built.getAsJsonObject("a").getAsJsonObject("b").get("d").getAsInt());
+      assertEquals(1, built.getAsJsonObject("a").getAsJsonObject("b").size());
+   }
+}
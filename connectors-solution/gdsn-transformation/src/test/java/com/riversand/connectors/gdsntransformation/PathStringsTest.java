@@ -0,0 +1,28 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.regex.Pattern;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class PathStringsTest {
+   @Test
+   public void testRemoveAll() {
+      String path = "data.attributes.gtin.values";
+      assertSame(path, PathStrings.removeAll(path, "[0].value"));
+      assertEquals(path, PathStrings.removeAll("data.attributes.gtin.values[0].value", "[0].value"));
+      assertEquals("a.b", PathStrings.removeAll("a[0].src.b[0].src", "[0].src"));
+   }
+
+   @Test
+   public void testSplitMatchesStringSplit() {
+      for (String value : new String[]{"", "a", "a||b", "a||||b", "||a", "a||", "a||||", "a|b"}) {
+         assertEquals(value, Arrays.asList(value.split(Pattern.quote("||"))), PathStrings.split(value, "||"));
+      }
+      assertEquals(Collections.emptyList(), PathStrings.split(null, "||"));
+   }
+}
@@ -0,0 +1,91 @@
+package com.riversand.connectors.gdsntransformation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+import com.google.gson.JsonPrimitive;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class StringPoolTest {
+   @Test
+   public void testPrimitivesAreShared() {
+      StringPool pool = new StringPool(16);
+      JsonPrimitive languageCode = pool.primitive(new String("en-US"));
+      assertSame(languageCode, pool.primitive(new String("en-US")));
+      assertEquals("en-US", languageCode.getAsString());
+      assertSame(pool.intern(new String("en-US")), languageCode.getAsString());
+   }
+
+   @Test
+   public void testPoolIsBounded() {
+      StringPool pool = new StringPool(2);
+      pool.intern("KGM");
+      pool.intern("GRM");
+      String value = new String("LTR");
+      assertSame(value, pool.intern(value));
+      assertNotSame(pool.primitive("LTR"), pool.primitive("LTR"));
+      assertEquals(2, pool.size());
+
+      StringBuilder longValue = new StringBuilder();
+      for (int i = 0; i <= StringPool.MAX_VALUE_LENGTH; i++) {
+         longValue.append('x');
+      }
+      StringPool emptyPool = new StringPool(16);
+      emptyPool.intern(longValue.toString());
+      assertEquals(0, emptyPool.size());
+   }
+
+   @Test
+   public void testConcurrentUse() throws Exception {
+      // shared by the transformers of a profile: the bound holds and every thread gets the pooled instances
+      StringPool pool = new StringPool(64);
+      ExecutorService executor = Executors.newFixedThreadPool(8);
+      try {
+         List<Callable<List<JsonPrimitive>>> tasks = new ArrayList<>();
+         for (int t = 0; t < 8; t++) {
+            tasks.add(() -> {
+               List<JsonPrimitive> primitives = new ArrayList<>();
+               for (int i = 0; i < 200; i++) {
+                  primitives.add(pool.primitive(new String("code" + i)));
+               }
+               return primitives;
+            });
+         }
+         for (Future<List<JsonPrimitive>> future : executor.invokeAll(tasks)) {
+            List<JsonPrimitive> primitives = future.get();
+            for (int i = 0; i < 200; i++) {
+               assertEquals("code" + i, primitives.get(i).getAsString());
+            }
+         }
+         assertTrue(pool.size() > 0 && pool.size() <= 64);
+
+         // once pooled, all threads see the same instance
+         List<JsonPrimitive> pooled = new ArrayList<>();
+         for (int i = 0; i < 200; i++) {
+            JsonPrimitive primitive = pool.primitive("code" + i);
+            pooled.add(primitive == pool.primitive("code" + i) ? primitive : null);
+         }
+         for (Future<List<JsonPrimitive>> future : executor.invokeAll(tasks)) {
+            List<JsonPrimitive> primitives = future.get();
+            for (int i = 0; i < 200; i++) {
+               if (pooled.get(i) != null) {
+                  assertSame(pooled.get(i), primitives.get(i));
+               }
+            }
+         }
+         assertTrue(pool.size() <= 64);
+      } finally {
+         executor.shutdown();
+      }
+   }
+}
@@ -0,0 +1,95 @@
+package com.riversand.connectors.gdsntransformation;
+
+import org.junit.Test;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import com.riversand.rsconnect.interfaces.models.JsonRecord;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class ValueConverterTest {
+   private static final String[] TYPES = {"integer", "decimal", "boolean", "number", "string", "Decimal"};
+   private static final String[] VALUES = {"12", "-7", "0", "12.50", "1e3", "1.5E-2", "9007199254740993", "n/a", "", "true", "TRUE", "yes"};
+
+   @Test
+   public void testTypedSourceIsCopied() {
+      JsonPrimitive text = new JsonPrimitive("kg");
+      assertSame(text, ValueConverter.forType("string").convert(text));
+      JsonPrimitive flag = new JsonPrimitive(true);
+      assertSame(flag, ValueConverter.forType("boolean").convert(flag));
+      // numbers printed like the parsed long or double are copied
+      JsonPrimitive integer = new JsonParser().parse("-12").getAsJsonPrimitive();
+      assertSame(integer, ValueConverter.forType("integer").convert(integer));
+      JsonPrimitive decimal = new JsonParser().parse("12.5").getAsJsonPrimitive();
+      assertSame(decimal, ValueConverter.forType("decimal").convert(decimal));
+      JsonPrimitive parsedDecimal = new JsonPrimitive(12.5);
+      assertSame(parsedDecimal, ValueConverter.forType("decimal").convert(parsedDecimal));
+      // other numbers get the format of the parsed long or double
+      JsonPrimitive number = new JsonParser().parse("12.50").getAsJsonPrimitive();
+      assertEquals("12.5", ValueConverter.forType("decimal").convert(number).toString());
+      assertEquals("12.0", ValueConverter.forType("decimal").convert(new JsonParser().parse("12")).toString());
+      assertEquals("7", ValueConverter.forType("integer").convert(new JsonParser().parse("007")).toString());
+   }
+
+   @Test
+   public void testConversionFromString() {
+      assertEquals(new JsonPrimitive(12.5), ValueConverter.forType("decimal").convert(new JsonPrimitive("12.5")));
+      assertEquals(new JsonPrimitive("12.5"), ValueConverter.forType("number").convert(new JsonPrimitive("12.5")));
+      assertEquals(new JsonPrimitive(true), ValueConverter.forType("Boolean").convert(new JsonPrimitive("true")));
+      assertEquals(new JsonPrimitive("12"), ValueConverter.forType(null).convert(new JsonPrimitive(12)));
+      assertEquals(JsonNull.INSTANCE, ValueConverter.STRING.convert((String) null));
+      try {
+         ValueConverter.forType("integer").convert(new JsonPrimitive("n/a"));
+         fail("a value which is not a number fails the mapping");
+      } catch (NumberFormatException ex) {
+         // expected
+      }
+   }
+
+   @Test
+   public void testSameAsJsonRecordSetValue() {
+      for (String type : TYPES) {
+         for (String value : VALUES) {
+            assertSameAsSetValue(type, value, new JsonPrimitive(value));
+         }
+         // numbers and booleans parsed from the source, copied or converted from their string form
+         for (String number : new String[]{"12", "-7", "0", "-0", "007", "12.5", "12.50", "-0.0", "1e3", "1.0E10", "123456789012345678", "9007199254740993"}) {
+            assertSameAsSetValue(type, number, new JsonParser().parse(number).getAsJsonPrimitive());
+         }
+         assertSameAsSetValue(type, "true", new JsonPrimitive(true));
+      }
+   }
+
+   /**
+    * Compares the converter with {@code JsonRecord.setValue} of the rsconnect version on the classpath.
+    *
+    * @param value  source value as the transformer read it before the converters, as a string
+    * @param source the same value as parsed from the source
+    */
+   private static void assertSameAsSetValue(String type, String value, JsonPrimitive source) {
+      String message = type + " " + value;
+      JsonObject record = new JsonObject();
+      String expected;
+      try {
+         new JsonRecord(record, null).setValue("field", value, type, true);
+         expected = record.get("field").toString();
+      } catch (NumberFormatException ex) {
+         expected = NumberFormatException.class.getName();
+      }
+      String converted;
+      try {
+         JsonElement element = ValueConverter.forType(type).convert(source);
+         converted = element.toString();
+      } catch (NumberFormatException ex) {
+         converted = NumberFormatException.class.getName();
+      }
+      assertEquals(message, expected, converted);
+   }
+}